@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.glytching.junit.extension.folder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+import static java.nio.file.StandardOpenOption.READ;
+
+/**
+ * Computes a digest of a file's contents without reading the file onto the heap. Large files are
+ * mapped a window at a time and each window is unmapped as soon as it has been digested so the
+ * memory used is bounded by {@link #WINDOW_SIZE} no matter how large the file is. Small files are
+ * read through a reusable direct buffer since mapping a small file costs more than reading it.
+ *
+ * <p>The digest is used to detect changes rather than for security so the algorithm (MD5) is chosen
+ * for speed.
+ *
+ * <p>Instances are not thread safe.
+ */
+final class ContentHasher {
+  static final int WINDOW_SIZE = 16 * 1024 * 1024;
+  static final int MAPPING_THRESHOLD = 64 * 1024;
+
+  private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+  private final MessageDigest digest;
+  private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(MAPPING_THRESHOLD);
+
+  ContentHasher() {
+    try {
+      digest = MessageDigest.getInstance("MD5");
+    } catch (NoSuchAlgorithmException ex) {
+      // every JRE is required to support MD5
+      throw new IllegalStateException(ex);
+    }
+  }
+
+  /**
+   * @param file the file to be digested
+   * @return a hex encoded digest of the given {@code file}'s contents
+   * @throws IOException in case the file cannot be read
+   */
+  String hash(Path file) throws IOException {
+    digest.reset();
+    try (FileChannel channel = FileChannel.open(file, READ)) {
+      long size = channel.size();
+      if (size <= MAPPING_THRESHOLD) {
+        read(channel);
+      } else {
+        map(channel, size);
+      }
+    }
+    return toHex(digest.digest());
+  }
+
+  private void read(FileChannel channel) throws IOException {
+    readBuffer.clear();
+    while (channel.read(readBuffer) > 0) {
+      readBuffer.flip();
+      digest.update(readBuffer);
+      readBuffer.clear();
+    }
+  }
+
+  private void map(FileChannel channel, long size) throws IOException {
+    for (long position = 0; position < size; position += WINDOW_SIZE) {
+      MappedByteBuffer window =
+          channel.map(READ_ONLY, position, Math.min(WINDOW_SIZE, size - position));
+      try {
+        digest.update(window);
+      } finally {
+        MappedBuffers.unmap(window);
+      }
+    }
+  }
+
+  private static String toHex(byte[] bytes) {
+    char[] hex = new char[bytes.length * 2];
+    for (int i = 0; i < bytes.length; i++) {
+      hex[i * 2] = HEX[(bytes[i] >> 4) & 0xF];
+      hex[i * 2 + 1] = HEX[bytes[i] & 0xF];
+    }
+    return new String(hex);
+  }
+}
@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.glytching.junit.extension.folder;
+
+/**
+ * A point in time measurement of the contents of a {@link TemporaryFolder}. Sizes are the apparent
+ * size of each file (i.e. its length) rather than the blocks it occupies on disk so a sparse file
+ * counts for its full length.
+ *
+ * @since 2.7.0
+ */
+public final class DiskUsage {
+
+  static final DiskUsage NONE = new DiskUsage(0, 0, 0);
+
+  private final long files;
+  private final long bytes;
+  private final long peakBytes;
+
+  DiskUsage(long files, long bytes, long peakBytes) {
+    this.files = files;
+    this.bytes = bytes;
+    this.peakBytes = peakBytes;
+  }
+
+  /** @return the number of files (excluding directories) in the folder */
+  public long getFiles() {
+    return files;
+  }
+
+  /** @return the total size, in bytes, of the files in the folder */
+  public long getBytes() {
+    return bytes;
+  }
+
+  /**
+   * @return the largest value of {@link #getBytes()} observed by any measurement of the folder
+   *     over its lifetime, including this one
+   */
+  public long getPeakBytes() {
+    return peakBytes;
+  }
+
+  /**
+   * Combine this measurement with the given {@code other} measurement, this is used to report on
+   * all of the folders which belong to a test.
+   */
+  DiskUsage plus(DiskUsage other) {
+    return new DiskUsage(files + other.files, bytes + other.bytes, peakBytes + other.peakBytes);
+  }
+
+  @Override
+  public String toString() {
+    return "DiskUsage{" + "files=" + files + ", bytes=" + bytes + ", peakBytes=" + peakBytes + '}';
+  }
+}
@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.glytching.junit.extension.folder;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static java.nio.file.FileVisitResult.CONTINUE;
+import static java.nio.file.StandardOpenOption.CREATE_NEW;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Writes the contents of a directory to a zip archive. Each file is streamed straight from disk
+ * into the archive so archiving a large folder does not need a large heap.
+ */
+final class FolderArchives {
+  private static final String ARCHIVE_SUFFIX = ".zip";
+
+  // this is a utility class - hide the public ctor
+  private FolderArchives() {}
+
+  /**
+   * Archive the given {@code source} directory into a new archive in the given {@code
+   * archiveDirectory}. The archive is named for the given {@code name}, if an archive with that
+   * name already exists (e.g. because the same test failed more than once) then a numeric suffix is
+   * added to the name.
+   *
+   * @param source the directory to be archived
+   * @param archiveDirectory the directory in which to create the archive, this is created if it
+   *     does not exist
+   * @param name the name of the archive, without suffix
+   * @return the archive
+   * @throws IOException in case the archive cannot be written
+   */
+  static Path archive(Path source, Path archiveDirectory, String name) throws IOException {
+    Files.createDirectories(archiveDirectory);
+    String safeName = name.replaceAll("[^A-Za-z0-9._-]", "_");
+
+    Path archive = archiveDirectory.resolve(safeName + ARCHIVE_SUFFIX);
+    for (int attempt = 1; ; attempt++) {
+      try (OutputStream out = Files.newOutputStream(archive, CREATE_NEW, WRITE)) {
+        write(source, out);
+        return archive;
+      } catch (FileAlreadyExistsException ex) {
+        archive = archiveDirectory.resolve(safeName + "-" + attempt + ARCHIVE_SUFFIX);
+      }
+    }
+  }
+
+  private static void write(Path source, OutputStream out) throws IOException {
+    try (ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(out))) {
+      Files.walkFileTree(
+          source,
+          new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attributes)
+                throws IOException {
+              // include empty directories, their presence may be what the test was checking
+              if (!dir.equals(source)) {
+                zip.putNextEntry(new ZipEntry(entryName(dir) + "/"));
+                zip.closeEntry();
+              }
+              return CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes)
+                throws IOException {
+              if (attributes.isRegularFile()) {
+                ZipEntry entry = new ZipEntry(entryName(file));
+                entry.setTime(attributes.lastModifiedTime().toMillis());
+                zip.putNextEntry(entry);
+                Files.copy(file, zip);
+                zip.closeEntry();
+              }
+              return CONTINUE;
+            }
+
+            private String entryName(Path path) {
+              StringBuilder name = new StringBuilder();
+              for (Path element : source.relativize(path)) {
+                if (name.length() > 0) {
+                  name.append('/');
+                }
+                name.append(element);
+              }
+              return name.toString();
+            }
+          });
+    }
+  }
+}
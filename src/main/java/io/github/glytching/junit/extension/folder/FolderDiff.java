@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.glytching.junit.extension.folder;
+
+import java.util.Collections;
+import java.util.SortedSet;
+
+/**
+ * The differences between two {@link FolderSnapshot}s, created by {@link
+ * FolderSnapshot#diff(FolderSnapshot, FolderSnapshot)}. Each set contains paths relative to the
+ * folder's root, using {@code /} as the separator, in lexical order.
+ *
+ * @since 2.7.0
+ */
+public final class FolderDiff {
+
+  private final SortedSet<String> added;
+  private final SortedSet<String> removed;
+  private final SortedSet<String> modified;
+
+  FolderDiff(SortedSet<String> added, SortedSet<String> removed, SortedSet<String> modified) {
+    this.added = Collections.unmodifiableSortedSet(added);
+    this.removed = Collections.unmodifiableSortedSet(removed);
+    this.modified = Collections.unmodifiableSortedSet(modified);
+  }
+
+  /** @return the files which exist in the later snapshot but not in the earlier snapshot */
+  public SortedSet<String> getAdded() {
+    return added;
+  }
+
+  /** @return the files which exist in the earlier snapshot but not in the later snapshot */
+  public SortedSet<String> getRemoved() {
+    return removed;
+  }
+
+  /** @return the files which exist in both snapshots but whose size or contents differ */
+  public SortedSet<String> getModified() {
+    return modified;
+  }
+
+  /** @return true if the two snapshots are identical */
+  public boolean isEmpty() {
+    return added.isEmpty() && removed.isEmpty() && modified.isEmpty();
+  }
+
+  @Override
+  public String toString() {
+    return "FolderDiff{"
+        + "added="
+        + added
+        + ", removed="
+        + removed
+        + ", modified="
+        + modified
+        + '}';
+  }
+}
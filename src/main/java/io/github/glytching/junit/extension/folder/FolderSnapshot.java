@@ -0,0 +1,169 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.glytching.junit.extension.folder;
+
+import java.util.*;
+
+/**
+ * A point in time manifest of the contents of a {@link TemporaryFolder}, created by {@link
+ * TemporaryFolder#snapshot()}. The manifest records the path, size and content hash of every file
+ * in the folder but not the contents themselves so it is small even when the folder is large. Two
+ * snapshots can be compared with {@link #diff(FolderSnapshot, FolderSnapshot)} to find out what was
+ * written between them.
+ *
+ * <p>Usage example:
+ *
+ * <pre>
+ *  FolderSnapshot before = temporaryFolder.snapshot();
+ *
+ *  componentUnderTest.writeTo(temporaryFolder.getRoot());
+ *
+ *  FolderDiff diff = FolderSnapshot.diff(before, temporaryFolder.snapshot());
+ *  assertThat(diff.getAdded(), contains("output/report.csv"));
+ *  assertThat(diff.getModified(), empty());
+ * </pre>
+ *
+ * @since 2.7.0
+ */
+public final class FolderSnapshot {
+
+  static final FolderSnapshot EMPTY = new FolderSnapshot(Collections.emptySortedMap());
+
+  private final SortedMap<String, Entry> entries;
+
+  FolderSnapshot(SortedMap<String, Entry> entries) {
+    this.entries = Collections.unmodifiableSortedMap(entries);
+  }
+
+  /**
+   * Compare two snapshots of the same folder.
+   *
+   * @param before the earlier snapshot
+   * @param after the later snapshot
+   * @return the files which were added, removed or modified between {@code before} and {@code
+   *     after}
+   */
+  public static FolderDiff diff(FolderSnapshot before, FolderSnapshot after) {
+    SortedSet<String> added = new TreeSet<>();
+    SortedSet<String> removed = new TreeSet<>();
+    SortedSet<String> modified = new TreeSet<>();
+
+    for (Entry entry : after.entries.values()) {
+      Entry previous = before.entries.get(entry.getPath());
+      if (previous == null) {
+        added.add(entry.getPath());
+      } else if (!previous.equals(entry)) {
+        modified.add(entry.getPath());
+      }
+    }
+    for (String path : before.entries.keySet()) {
+      if (!after.entries.containsKey(path)) {
+        removed.add(path);
+      }
+    }
+    return new FolderDiff(added, removed, modified);
+  }
+
+  /** @return the paths of every file in the snapshot, in lexical order */
+  public Set<String> getPaths() {
+    return entries.keySet();
+  }
+
+  /** @return every file in the snapshot, in lexical order of their paths */
+  public Collection<Entry> getEntries() {
+    return entries.values();
+  }
+
+  /**
+   * @param path a path relative to the folder's root, using {@code /} as the separator
+   * @return the file at the given {@code path} or empty if the snapshot has no such file
+   */
+  public Optional<Entry> getEntry(String path) {
+    return Optional.ofNullable(entries.get(path));
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    return entries.equals(((FolderSnapshot) o).entries);
+  }
+
+  @Override
+  public int hashCode() {
+    return entries.hashCode();
+  }
+
+  @Override
+  public String toString() {
+    return "FolderSnapshot{" + "entries=" + entries.values() + '}';
+  }
+
+  /** A single file within a {@link FolderSnapshot}. */
+  public static final class Entry {
+    private final String path;
+    private final long size;
+    private final String hash;
+
+    Entry(String path, long size, String hash) {
+      this.path = path;
+      this.size = size;
+      this.hash = hash;
+    }
+
+    /** @return the file's path relative to the folder's root, using {@code /} as the separator */
+    public String getPath() {
+      return path;
+    }
+
+    /** @return the file's size in bytes */
+    public long getSize() {
+      return size;
+    }
+
+    /** @return a hex encoded digest of the file's contents */
+    public String getHash() {
+      return hash;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      Entry entry = (Entry) o;
+      return size == entry.size && path.equals(entry.path) && hash.equals(entry.hash);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(path, size, hash);
+    }
+
+    @Override
+    public String toString() {
+      return path + "(" + size + " bytes, " + hash + ")";
+    }
+  }
+}
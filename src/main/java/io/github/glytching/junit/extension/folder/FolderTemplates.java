@@ -0,0 +1,252 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.glytching.junit.extension.folder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.function.Function;
+
+import static java.nio.file.FileVisitResult.CONTINUE;
+
+/**
+ * Resolves and materializes the directories declared by {@link TemporaryFolderTemplate}. Resolved
+ * templates are cached for the lifetime of the JVM so the (potentially expensive) lookup and, for
+ * templates packaged inside a jar, extraction happen once regardless of how many tests use the
+ * template.
+ *
+ * <p>A linked template's files are not linked to the template itself but to a read-only snapshot
+ * of it, which is also made once per JVM. A test which writes to a linked file in place therefore
+ * fails fast rather than corrupting the template for every later test. Where read-only files
+ * cannot be relied upon (e.g. for a privileged user, who can write to them, or on a file system
+ * without POSIX permissions, such as Windows', where they cannot be deleted) the template is
+ * copied instead.
+ */
+final class FolderTemplates {
+
+  private static final ConcurrentMap<String, FutureTask<Path>> TEMPLATES =
+      new ConcurrentHashMap<>();
+  private static final ConcurrentMap<String, FutureTask<Path>> SNAPSHOTS =
+      new ConcurrentHashMap<>();
+
+  private static final Set<PosixFilePermission> READ_ONLY =
+      PosixFilePermissions.fromString("r--r--r--");
+
+  // this is a utility class - hide the public ctor
+  private FolderTemplates() {}
+
+  /**
+   * Copy (or link) the contents of the given {@code template} into the given {@code target}.
+   *
+   * @param template describes the template to be materialized
+   * @param target the directory into which the template's contents will be materialized
+   */
+  static void materialize(TemporaryFolderTemplate template, Path target) {
+    Path source = cached(TEMPLATES, template.value(), FolderTemplates::resolve);
+    Path snapshot =
+        template.link() ? cached(SNAPSHOTS, template.value(), location -> snapshot(source)) : null;
+    try {
+      if (snapshot != null) {
+        Files.walkFileTree(snapshot, new TemplateVisitor(snapshot, target, true));
+      } else {
+        Files.walkFileTree(source, new TemplateVisitor(source, target, false));
+      }
+    } catch (IOException ex) {
+      throw new TemporaryFolderException(
+          String.format("Failed to materialize template: '%s'", template.value()), ex);
+    }
+  }
+
+  /**
+   * Get the value cached for the given {@code location}, computing it if it is absent. Unlike
+   * {@link ConcurrentMap#computeIfAbsent} the (potentially slow) computation runs outside of the
+   * map so it only holds up callers who want the same location. If the computation fails then
+   * nothing is cached, so a later caller will try again.
+   */
+  private static Path cached(
+      ConcurrentMap<String, FutureTask<Path>> cache,
+      String location,
+      Function<String, Path> computation) {
+    FutureTask<Path> task = cache.get(location);
+    if (task == null) {
+      FutureTask<Path> computing = new FutureTask<>(() -> computation.apply(location));
+      task = cache.putIfAbsent(location, computing);
+      if (task == null) {
+        task = computing;
+        computing.run();
+      }
+    }
+    try {
+      return task.get();
+    } catch (ExecutionException ex) {
+      cache.remove(location, task);
+      // the computation throws no checked exceptions
+      if (ex.getCause() instanceof Error) {
+        throw (Error) ex.getCause();
+      }
+      throw (RuntimeException) ex.getCause();
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new TemporaryFolderException(
+          String.format("Interrupted while resolving template: '%s'", location), ex);
+    }
+  }
+
+  /**
+   * Copy the given {@code source} to a {@link TemporaryFolder} which lives until the JVM exits and
+   * make each of its files read-only, so that the copy can be safely linked into many temporary
+   * folders.
+   *
+   * @return the read-only copy or null if read-only files cannot be enforced, in which case the
+   *     template must be copied rather than linked
+   */
+  private static Path snapshot(Path source) {
+    Path target = new TemporaryFolder().getRoot().toPath();
+    if (Files.getFileAttributeView(target, PosixFileAttributeView.class) == null) {
+      return null;
+    }
+    try {
+      Files.walkFileTree(source, new TemplateVisitor(source, target, false));
+      List<Path> files = new ArrayList<>();
+      Files.walkFileTree(
+          target,
+          new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes)
+                throws IOException {
+              Files.setPosixFilePermissions(file, READ_ONLY);
+              files.add(file);
+              return CONTINUE;
+            }
+          });
+      // e.g. the root user can write to a read-only file
+      return files.isEmpty() || !Files.isWritable(files.get(0)) ? target : null;
+    } catch (IOException ex) {
+      throw new TemporaryFolderException(
+          String.format("Failed to snapshot template: '%s'", source), ex);
+    }
+  }
+
+  /**
+   * Find the directory for the given {@code location}, looking on the classpath first and then on
+   * the file system. A template found inside a jar is extracted to a {@link TemporaryFolder} which
+   * lives until the JVM exits (it is removed along with the {@link TemporaryFolderSession}).
+   */
+  private static Path resolve(String location) {
+    URL url = Thread.currentThread().getContextClassLoader().getResource(location);
+    if (url == null) {
+      Path path = Paths.get(location);
+      if (!Files.isDirectory(path)) {
+        throw new TemporaryFolderException(
+            String.format("Failed to find template: '%s'", location));
+      }
+      return path;
+    }
+
+    try {
+      return "jar".equals(url.getProtocol()) ? extract(url.toURI()) : Paths.get(url.toURI());
+    } catch (IOException | URISyntaxException ex) {
+      throw new TemporaryFolderException(
+          String.format("Failed to resolve template: '%s'", location), ex);
+    }
+  }
+
+  /**
+   * Extract the template at the given {@code uri}, within a jar, reusing the jar's file system if
+   * it is already open (e.g. by the code under test). A file system which is opened here is closed
+   * here, this is synchronized so that no two extractions try to open the same jar at once.
+   */
+  private static synchronized Path extract(URI uri) throws IOException {
+    TemporaryFolder extracted = new TemporaryFolder();
+    Path target = extracted.getRoot().toPath();
+    FileSystem opened = null;
+    try {
+      try {
+        FileSystems.getFileSystem(uri);
+      } catch (FileSystemNotFoundException ex) {
+        try {
+          opened = FileSystems.newFileSystem(uri, Collections.emptyMap());
+        } catch (FileSystemAlreadyExistsException alreadyOpened) {
+          // opened elsewhere since we looked
+        }
+      }
+      Path source = Paths.get(uri);
+      Files.walkFileTree(source, new TemplateVisitor(source, target, false));
+    } finally {
+      if (opened != null) {
+        opened.close();
+      }
+    }
+    return target;
+  }
+
+  /** Recreates the directory structure of a template beneath a target, file by file. */
+  private static class TemplateVisitor extends SimpleFileVisitor<Path> {
+    private final Path source;
+    private final Path target;
+    private boolean link;
+
+    private TemplateVisitor(Path source, Path target, boolean link) {
+      this.source = source;
+      this.target = target;
+      this.link = link;
+    }
+
+    @Override
+    public FileVisitResult preVisitDirectory(Path directory, BasicFileAttributes attributes)
+        throws IOException {
+      Files.createDirectories(targetOf(directory));
+      return CONTINUE;
+    }
+
+    @Override
+    public FileVisitResult visitFile(Path file, BasicFileAttributes attributes)
+        throws IOException {
+      Path destination = targetOf(file);
+      if (link) {
+        try {
+          Files.createLink(destination, file);
+          return CONTINUE;
+        } catch (IOException | UnsupportedOperationException ex) {
+          // links are not possible here, stop trying and copy this (and every subsequent) file
+          link = false;
+        }
+      }
+      Files.copy(file, destination);
+      return CONTINUE;
+    }
+
+    // the source may belong to a different file system (e.g. a jar) so resolve by name
+    private Path targetOf(Path path) {
+      return target.resolve(source.relativize(path).toString());
+    }
+  }
+}
@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.glytching.junit.extension.folder;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.MappedByteBuffer;
+
+/**
+ * Releases the memory mapping behind a {@link MappedByteBuffer} without waiting for the buffer to
+ * be garbage collected. The JDK offers no public API for this so we use whichever of the following
+ * is available:
+ *
+ * <ul>
+ *   <li>Java 9+: {@code sun.misc.Unsafe.invokeCleaner(ByteBuffer)}
+ *   <li>Java 8: {@code ((sun.nio.ch.DirectBuffer) buffer).cleaner().clean()}
+ * </ul>
+ *
+ * If neither is available then unmapping is a no-op and the mapping will be released whenever the
+ * buffer is garbage collected.
+ */
+final class MappedBuffers {
+
+  private static final Unmapper UNMAPPER = createUnmapper();
+
+  // this is a utility class - hide the public ctor
+  private MappedBuffers() {}
+
+  /**
+   * Release the mapping behind the given {@code buffer}. The given {@code buffer} must not be used
+   * after this call, any attempt to read from or write to it may crash the JVM.
+   *
+   * @param buffer the buffer to be unmapped
+   */
+  static void unmap(MappedByteBuffer buffer) {
+    try {
+      UNMAPPER.unmap(buffer);
+    } catch (Exception ex) {
+      // the mapping will be released when the buffer is garbage collected
+    }
+  }
+
+  private static Unmapper createUnmapper() {
+    try {
+      Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+      Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", java.nio.ByteBuffer.class);
+      Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+      theUnsafe.setAccessible(true);
+      Object unsafe = theUnsafe.get(null);
+      return buffer -> invokeCleaner.invoke(unsafe, buffer);
+    } catch (Exception ex) {
+      // pre Java 9, fall through to the DirectBuffer cleaner
+    }
+
+    try {
+      Method cleaner = Class.forName("sun.nio.ch.DirectBuffer").getMethod("cleaner");
+      Method clean = Class.forName("sun.misc.Cleaner").getMethod("clean");
+      return buffer -> {
+        Object bufferCleaner = cleaner.invoke(buffer);
+        if (bufferCleaner != null) {
+          clean.invoke(bufferCleaner);
+        }
+      };
+    } catch (Exception ex) {
+      return buffer -> {};
+    }
+  }
+
+  @FunctionalInterface
+  private interface Unmapper {
+    void unmap(MappedByteBuffer buffer) throws Exception;
+  }
+}
@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.glytching.junit.extension.folder;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Finds the files which this process currently has open. The JDK offers no portable way to do this
+ * so this relies on {@code /proc/self/fd}; on platforms without it no open files are ever found.
+ */
+final class OpenFiles {
+  private static final Path FILE_DESCRIPTORS = Paths.get("/proc/self/fd");
+
+  // this is a utility class - hide the public ctor
+  private OpenFiles() {}
+
+  /**
+   * @param directory the directory of interest
+   * @return the files within the given {@code directory} which this process has open
+   */
+  static List<Path> within(Path directory) {
+    if (!Files.isDirectory(FILE_DESCRIPTORS)) {
+      return Collections.emptyList();
+    }
+
+    Path absoluteDirectory = directory.toAbsolutePath();
+    List<Path> openFiles = new ArrayList<>();
+    try (DirectoryStream<Path> descriptors = Files.newDirectoryStream(FILE_DESCRIPTORS)) {
+      for (Path descriptor : descriptors) {
+        try {
+          Path target = Files.readSymbolicLink(descriptor);
+          if (target.startsWith(absoluteDirectory)) {
+            openFiles.add(target);
+          }
+        } catch (IOException ex) {
+          // the descriptor was closed while we were looking at it
+        }
+      }
+    } catch (IOException ex) {
+      return Collections.emptyList();
+    }
+    return openFiles;
+  }
+}
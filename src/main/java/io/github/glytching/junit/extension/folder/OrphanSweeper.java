@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.glytching.junit.extension.folder;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Deletes the {@link TemporaryFolderSession} directories left behind by JVMs which exited without
+ * running their shutdown hooks (e.g. a JVM which was killed). A session is orphaned if nobody holds
+ * the lock on its owner file.
+ *
+ * <p>A session whose owner file was modified within the last {@link #GRACE_PERIOD_MILLIS} is never
+ * swept, this protects a session which has been created but not yet locked.
+ */
+final class OrphanSweeper {
+  static final long GRACE_PERIOD_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+  private static final Logger logger = Logger.getLogger(OrphanSweeper.class.getName());
+  private static final AtomicBoolean started = new AtomicBoolean();
+
+  // this is a utility class - hide the public ctor
+  private OrphanSweeper() {}
+
+  /**
+   * Sweep the default temporary directory on a background thread. Only the first invocation in a
+   * JVM has any effect.
+   */
+  static void sweepInBackground() {
+    if (started.compareAndSet(false, true)) {
+      Path parent = Paths.get(System.getProperty("java.io.tmpdir"));
+      Thread sweeper = new Thread(() -> sweep(parent), "temporary-folder-sweeper");
+      sweeper.setDaemon(true);
+      sweeper.start();
+    }
+  }
+
+  /**
+   * Delete every orphaned session directory within the given {@code parent}.
+   *
+   * @param parent the directory to sweep
+   * @return the number of orphaned session directories which were deleted
+   */
+  static int sweep(Path parent) {
+    int swept = 0;
+    try (DirectoryStream<Path> sessions =
+        Files.newDirectoryStream(parent, TemporaryFolderSession.SESSION_PREFIX + "*")) {
+      for (Path session : sessions) {
+        if (isOrphaned(session)) {
+          try {
+            TemporaryFolder.delete(session);
+            swept++;
+          } catch (IOException ex) {
+            logger.log(Level.FINE, String.format("Failed to delete [%s]", session), ex);
+          }
+        }
+      }
+    } catch (IOException ex) {
+      logger.log(Level.FINE, String.format("Failed to sweep [%s]", parent), ex);
+    }
+    if (swept > 0) {
+      logger.info(String.format("Deleted %s orphaned temporary folder session(s)", swept));
+    }
+    return swept;
+  }
+
+  private static boolean isOrphaned(Path session) {
+    // never open our own owner file, on some platforms closing *any* channel to a file releases
+    // all of this process's locks on that file
+    if (session.equals(TemporaryFolderSession.existingDirectory())) {
+      return false;
+    }
+
+    Path owner = session.resolve(TemporaryFolderSession.OWNER_FILE);
+    try {
+      if (!Files.isRegularFile(owner)
+          || Files.getLastModifiedTime(owner).toMillis()
+              > System.currentTimeMillis() - GRACE_PERIOD_MILLIS) {
+        return false;
+      }
+
+      try (FileChannel channel = FileChannel.open(owner, WRITE)) {
+        FileLock lock = channel.tryLock();
+        if (lock == null) {
+          // the owner is still alive
+          return false;
+        }
+        lock.release();
+        return true;
+      }
+    } catch (OverlappingFileLockException | IOException ex) {
+      // either this JVM holds the lock or locking is not possible, assume the owner is alive
+      return false;
+    }
+  }
+}
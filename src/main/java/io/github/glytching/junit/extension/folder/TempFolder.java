@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.glytching.junit.extension.folder;
+
+import java.lang.annotation.*;
+
+/**
+ * Marks a {@link TemporaryFolder} field for injection by the {@link TemporaryFolderExtension}. The
+ * {@link #scope()} controls how widely the injected {@link TemporaryFolder} is shared and hence
+ * when it is destroyed.
+ *
+ * <p>Usage example:
+ *
+ * <pre>
+ *  // a new TemporaryFolder for each test method
+ *  &#064;TempFolder private TemporaryFolder temporaryFolder;
+ *
+ *  // one TemporaryFolder shared by all test methods in this test class
+ *  &#064;TempFolder(scope = Scope.CLASS) private static TemporaryFolder classFolder;
+ *
+ *  // one TemporaryFolder shared by every test class in this test run
+ *  &#064;TempFolder(scope = Scope.SUITE) private TemporaryFolder suiteFolder;
+ * </pre>
+ *
+ * @since 2.7.0
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.ANNOTATION_TYPE})
+@Documented
+public @interface TempFolder {
+
+  /**
+   * How widely the injected {@link TemporaryFolder} is shared.
+   *
+   * @return the scope of the injected {@link TemporaryFolder}
+   */
+  Scope scope() default Scope.METHOD;
+
+  /** The lifecycle options for an injected {@link TemporaryFolder}. */
+  enum Scope {
+    /** Created for each test method and destroyed when that test method completes. */
+    METHOD,
+
+    /**
+     * Created once per test class and destroyed after all tests in that class (including any
+     * {@code @AfterAll} methods) have completed.
+     */
+    CLASS,
+
+    /**
+     * Created once per test run and destroyed when the run completes. Every field with this scope,
+     * in every test class, receives the same {@link TemporaryFolder}.
+     */
+    SUITE
+  }
+}
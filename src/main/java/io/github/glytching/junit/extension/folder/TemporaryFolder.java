@@ -20,10 +20,27 @@ import org.junit.jupiter.api.extension.ExtensionContext.Store.CloseableResource;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.*;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
 
+import static java.nio.channels.FileChannel.MapMode.READ_WRITE;
 import static java.nio.file.FileVisitResult.CONTINUE;
+import static java.nio.file.StandardOpenOption.CREATE_NEW;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.SPARSE;
+import static java.nio.file.StandardOpenOption.WRITE;
 
 /**
  * Encapsulates the {@link #rootFolder} within which any files or directories will be created along
@@ -34,26 +51,47 @@ import static java.nio.file.FileVisitResult.CONTINUE;
 public class TemporaryFolder implements CloseableResource {
   private static final String FILE_PREFIX = "junit";
   private static final String FILE_SUFFIX = ".tmp";
+  private static final int PREALLOCATION_CHUNK_SIZE = 1024 * 1024;
+
+  private static final Logger logger = Logger.getLogger(TemporaryFolder.class.getName());
+
+  /**
+   * Prepares the {@link #rootFolder} when it is created, for example by copying a template into it.
+   */
+  private final Consumer<Path> initializer;
 
   /**
    * The root folder within which any files or directories will be created, on {@link #destroy()}
-   * this folder and all of its contents will be silently deleted.
+   * this folder and all of its contents will be silently deleted. This is created on first use so
+   * a {@link TemporaryFolder} which is never used costs nothing.
+   */
+  private volatile File rootFolder;
+
+  /**
+   * Any buffers handed out by {@link #createMappedFile(String, long)}, these are unmapped on {@link
+   * #destroy()} so that the backing files can be deleted without waiting for garbage collection.
    */
-  private final File rootFolder;
+  private final Queue<MappedByteBuffer> mappedBuffers = new ConcurrentLinkedQueue<>();
+
+  /** The largest total size observed by {@link #getUsage()}. */
+  private final AtomicLong peakBytes = new AtomicLong();
 
   /**
    * Package protected since a {@link TemporaryFolder}'s lifecycle is expected to be controlled by
    * its associated extension.
    */
   TemporaryFolder() {
-    try {
-      // do not use Files.createTempFile to create a directory
-      // see https://rules.sonarsource.com/java/RSPEC-2976
-      Path tempPath = Files.createTempDirectory(FILE_PREFIX);
-      rootFolder = tempPath.toFile();
-    } catch (IOException ex) {
-      throw new TemporaryFolderException("Failed to prepare root folder!", ex);
-    }
+    this(root -> {});
+  }
+
+  /**
+   * Package protected since a {@link TemporaryFolder}'s lifecycle is expected to be controlled by
+   * its associated extension.
+   *
+   * @param initializer invoked with the root folder when that folder is created
+   */
+  TemporaryFolder(Consumer<Path> initializer) {
+    this.initializer = initializer;
   }
 
   @Override
@@ -75,7 +113,17 @@ public class TemporaryFolder implements CloseableResource {
    * @return the root folder
    */
   public File getRoot() {
-    return rootFolder;
+    File root = rootFolder;
+    if (root == null) {
+      synchronized (this) {
+        root = rootFolder;
+        if (root == null) {
+          root = createRoot();
+          rootFolder = root;
+        }
+      }
+    }
+    return root;
   }
 
   /**
@@ -86,10 +134,95 @@ public class TemporaryFolder implements CloseableResource {
    * @throws IOException in case the file creation call fails
    */
   public File createFile(String fileName) throws IOException {
-    Path path = Paths.get(rootFolder.getPath(), fileName);
+    Path path = Paths.get(getRoot().getPath(), fileName);
     return Files.createFile(path).toFile();
   }
 
+  /**
+   * Create a sparse file of the given {@code size} within the temporary folder root. The file's
+   * length is set by writing a single byte at its last position so, on file systems which support
+   * sparse files, no storage is allocated for the rest of the file and this is near instantaneous
+   * regardless of the requested size. Every byte of the file reads as zero. On file systems which
+   * do not support sparse files the file system fills the gap itself.
+   *
+   * @param fileName the name of the file to be created
+   * @param size the size of the file in bytes
+   * @return the newly created file instance
+   * @throws IOException in case the file creation call fails
+   * @since 2.7.0
+   */
+  public File createSparseFile(String fileName, long size) throws IOException {
+    requireNonNegative(size);
+
+    Path path = Paths.get(getRoot().getPath(), fileName);
+    try (FileChannel channel = FileChannel.open(path, CREATE_NEW, SPARSE, WRITE)) {
+      if (size > 0) {
+        channel.write(ByteBuffer.allocate(1), size - 1);
+      }
+    }
+    return path.toFile();
+  }
+
+  /**
+   * Create a file of the given {@code size} within the temporary folder root with storage allocated
+   * for every byte of it, this is useful for (for example) filling a file system. Unlike {@link
+   * #createSparseFile(String, long)} this has to write every block since the JDK offers no access
+   * to {@code fallocate} or its equivalents, the file is written in large chunks from a single
+   * direct buffer so the cost is close to the device's sequential write speed.
+   *
+   * @param fileName the name of the file to be created
+   * @param size the size of the file in bytes
+   * @return the newly created file instance
+   * @throws IOException in case the file creation call fails, for example because there is not
+   *     enough space for the file
+   * @since 2.7.0
+   */
+  public File preallocate(String fileName, long size) throws IOException {
+    requireNonNegative(size);
+
+    Path path = Paths.get(getRoot().getPath(), fileName);
+    ByteBuffer zeros = ByteBuffer.allocateDirect((int) Math.min(size, PREALLOCATION_CHUNK_SIZE));
+    try (FileChannel channel = FileChannel.open(path, CREATE_NEW, WRITE)) {
+      long position = 0;
+      while (position < size) {
+        zeros.clear();
+        zeros.limit((int) Math.min(zeros.capacity(), size - position));
+        position += channel.write(zeros, position);
+      }
+    }
+    return path.toFile();
+  }
+
+  /**
+   * Create a file of the given {@code size} within the temporary folder root and map it into
+   * memory. The file is sized without writing any content to it so, on file systems which support
+   * sparse files, this is near instantaneous regardless of the requested size.
+   *
+   * <p><b>Note:</b> the returned buffer is unmapped when this {@link TemporaryFolder} is destroyed,
+   * any attempt to use it after that point may crash the JVM.
+   *
+   * @param fileName the name of the file to be created
+   * @param size the size of the file in bytes, this cannot exceed {@link Integer#MAX_VALUE}
+   * @return a read/write {@link MappedByteBuffer} over the entire file
+   * @throws IOException in case the file creation or mapping call fails
+   * @since 2.7.0
+   */
+  public MappedByteBuffer createMappedFile(String fileName, long size) throws IOException {
+    if (size < 0 || size > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException(
+          String.format(
+              "Cannot map a file of size: %s, size must be 0..%s", size, Integer.MAX_VALUE));
+    }
+
+    Path path = Paths.get(getRoot().getPath(), fileName);
+    try (FileChannel channel = FileChannel.open(path, CREATE_NEW, SPARSE, READ, WRITE)) {
+      // mapping beyond the end of the file extends the file to the requested size
+      MappedByteBuffer buffer = channel.map(READ_WRITE, 0, size);
+      mappedBuffers.add(buffer);
+      return buffer;
+    }
+  }
+
   /**
    * Create a directory within the temporary folder root.
    *
@@ -97,7 +230,7 @@ public class TemporaryFolder implements CloseableResource {
    * @return the directory instance
    */
   public File createDirectory(String directoryName) {
-    Path path = Paths.get(rootFolder.getPath(), directoryName);
+    Path path = Paths.get(getRoot().getPath(), directoryName);
     try {
       return Files.createDirectory(path).toFile();
     } catch (IOException ex) {
@@ -106,17 +239,184 @@ public class TemporaryFolder implements CloseableResource {
     }
   }
 
+  /**
+   * Measure the contents of this temporary folder. This walks the folder so its cost is
+   * proportional to the number of files and directories within the folder.
+   *
+   * @return the current {@link DiskUsage} of this temporary folder
+   * @throws IOException in case the folder cannot be walked
+   * @since 2.7.0
+   */
+  public DiskUsage getUsage() throws IOException {
+    File root = rootFolder;
+    if (root == null || !root.exists()) {
+      return DiskUsage.NONE;
+    }
+
+    long[] totals = new long[2];
+    Files.walkFileTree(
+        root.toPath(),
+        new SimpleFileVisitor<Path>() {
+          @Override
+          public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+            if (attributes.isRegularFile()) {
+              totals[0]++;
+              totals[1] += attributes.size();
+            }
+            return CONTINUE;
+          }
+
+          @Override
+          public FileVisitResult visitFileFailed(Path file, IOException exception) {
+            // the file was removed (or became unreadable) while we were walking, ignore it
+            return CONTINUE;
+          }
+        });
+
+    long bytes = totals[1];
+    return new DiskUsage(totals[0], bytes, peakBytes.accumulateAndGet(bytes, Math::max));
+  }
+
+  /**
+   * Take a snapshot of the contents of this temporary folder. The snapshot records the path, size
+   * and content hash of each file, the contents are streamed through the hasher (large files are
+   * memory mapped a window at a time) so taking a snapshot never holds a whole file in memory.
+   * Compare snapshots with {@link FolderSnapshot#diff(FolderSnapshot, FolderSnapshot)}.
+   *
+   * @return a snapshot of this temporary folder's files
+   * @throws IOException in case the folder cannot be walked or a file within it cannot be read
+   * @since 2.7.0
+   */
+  public FolderSnapshot snapshot() throws IOException {
+    File root = rootFolder;
+    if (root == null || !root.exists()) {
+      return FolderSnapshot.EMPTY;
+    }
+
+    Path rootPath = root.toPath();
+    ContentHasher hasher = new ContentHasher();
+    SortedMap<String, FolderSnapshot.Entry> entries = new TreeMap<>();
+    Files.walkFileTree(
+        rootPath,
+        new SimpleFileVisitor<Path>() {
+          @Override
+          public FileVisitResult visitFile(Path file, BasicFileAttributes attributes)
+              throws IOException {
+            if (attributes.isRegularFile()) {
+              String path = rootPath.relativize(file).toString().replace(File.separatorChar, '/');
+              entries.put(
+                  path, new FolderSnapshot.Entry(path, attributes.size(), hasher.hash(file)));
+            }
+            return CONTINUE;
+          }
+        });
+    return new FolderSnapshot(entries);
+  }
+
+  /**
+   * Write the contents of this temporary folder to a zip archive. This is package protected because
+   * archiving is expected to be controlled by the associated extension, see {@link
+   * TemporaryFolderRetention}.
+   *
+   * @param archiveDirectory the directory in which to create the archive
+   * @param name the name of the archive, without suffix
+   * @return the archive or empty if this temporary folder was never used
+   * @throws IOException in case the archive cannot be written
+   */
+  Optional<Path> archive(Path archiveDirectory, String name) throws IOException {
+    File root = rootFolder;
+    if (root == null || !root.exists()) {
+      return Optional.empty();
+    }
+    return Optional.of(FolderArchives.archive(root.toPath(), archiveDirectory, name));
+  }
+
   /**
    * Deletes the {@link #rootFolder} and all of its contents. This is package protected because a
    * {@link TemporaryFolder}'s lifecycle is expected to be controlled by its associated extension.
    *
-   * <p><b>Note</b>: any exception encountered during deletion will be swallowed.
+   * <p>If the root folder was never created then there is nothing to delete.
+   *
+   * <p><b>Note</b>: any files within the root folder which are still open are logged, whether or
+   * not they prevent its deletion.
+   *
+   * @throws IOException if the root folder, or any of its contents, cannot be deleted
    */
   void destroy() throws IOException {
-    if (rootFolder.exists()) {
+    // release any mappings first, some platforms (e.g. Windows) will not delete a mapped file
+    MappedByteBuffer buffer;
+    while ((buffer = mappedBuffers.poll()) != null) {
+      MappedBuffers.unmap(buffer);
+    }
+
+    File root = rootFolder;
+    if (root != null) {
+      // scan before deleting since some platforms (e.g. Linux) will delete an open file, leaving
+      // its storage to be reclaimed only when the leaked handle is closed
+      List<Path> openFiles = OpenFiles.within(root.toPath());
+      try {
+        delete(root.toPath());
+      } catch (IOException ex) {
+        if (!openFiles.isEmpty()) {
+          logger.warning(
+              String.format(
+                  "Failed to destroy temporary folder [%s] with %s open file handle(s): %s",
+                  root, openFiles.size(), openFiles));
+        }
+        throw ex;
+      }
+      if (!openFiles.isEmpty()) {
+        logger.warning(
+            String.format(
+                "Destroyed temporary folder [%s] with %s open file handle(s), their storage is"
+                    + " not reclaimed until they are closed: %s",
+                root, openFiles.size(), openFiles));
+      }
+    }
+  }
+
+  private File createRoot() {
+    Path tempPath;
+    try {
+      // do not use Files.createTempFile to create a directory
+      // see https://rules.sonarsource.com/java/RSPEC-2976
+      tempPath = Files.createTempDirectory(TemporaryFolderSession.workerDirectory(), FILE_PREFIX);
+    } catch (IOException ex) {
+      throw new TemporaryFolderException("Failed to prepare root folder!", ex);
+    }
+
+    try {
+      initializer.accept(tempPath);
+    } catch (RuntimeException ex) {
+      // do not leave a partially initialized folder behind
+      try {
+        delete(tempPath);
+      } catch (IOException deletionFailure) {
+        ex.addSuppressed(deletionFailure);
+      }
+      throw ex;
+    }
+    return tempPath.toFile();
+  }
+
+  private static void requireNonNegative(long size) {
+    if (size < 0) {
+      throw new IllegalArgumentException(
+          String.format("Cannot create a file of size: %s, size must not be negative", size));
+    }
+  }
+
+  /**
+   * Deletes the given {@code root} and all of its contents.
+   *
+   * @param root the directory to be deleted
+   * @throws IOException in case the deletion fails
+   */
+  static void delete(Path root) throws IOException {
+    if (Files.exists(root)) {
       // walk the contents deleting each
       Files.walkFileTree(
-          rootFolder.toPath(),
+          root,
           new SimpleFileVisitor<Path>() {
             @Override
             public FileVisitResult visitFile(Path file, BasicFileAttributes attributes)
@@ -137,9 +437,9 @@ public class TemporaryFolder implements CloseableResource {
             }
           });
 
-      if (rootFolder.exists()) {
+      if (Files.exists(root)) {
         // delete the parent, if it still exists
-        Files.delete(rootFolder.toPath());
+        Files.delete(root);
       }
     }
   }
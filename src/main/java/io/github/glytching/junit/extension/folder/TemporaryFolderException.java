@@ -2,6 +2,10 @@ package io.github.glytching.junit.extension.folder;
 
 public class TemporaryFolderException extends RuntimeException {
 
+    public TemporaryFolderException(String message) {
+        super(message);
+    }
+
     public TemporaryFolderException(String message, Exception cause) {
         super(message, cause);
     }
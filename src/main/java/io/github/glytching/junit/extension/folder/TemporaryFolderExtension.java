@@ -16,11 +16,21 @@
  */
 package io.github.glytching.junit.extension.folder;
 
-import org.junit.jupiter.api.extension.ExtensionContext;
+import io.github.glytching.junit.extension.folder.TempFolder.Scope;
+import org.junit.jupiter.api.extension.*;
 import org.junit.jupiter.api.extension.ExtensionContext.Namespace;
-import org.junit.jupiter.api.extension.ParameterContext;
-import org.junit.jupiter.api.extension.ParameterResolutionException;
-import org.junit.jupiter.api.extension.ParameterResolver;
+
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static io.github.glytching.junit.extension.util.ExtensionUtil.getStore;
+import static org.junit.platform.commons.support.AnnotationSupport.findAnnotation;
 
 /**
  * The temporary folder extension provides a test with access to temporary files and directories.
@@ -63,6 +73,14 @@ import org.junit.jupiter.api.extension.ParameterResolver;
  *      // ...
  *  }
  * </pre>
+ *   <li>Field injection using the {@link TempFolder} annotation. The annotation's {@link
+ *       TempFolder#scope()} controls whether the {@link TemporaryFolder} is created (and destroyed)
+ *       for each test method, once for the test class or once for the entire test run. Folders
+ *       with a wider scope are shared so tests should treat them as read-only. For example:
+ *       <pre>
+ *  &#064;TempFolder(scope = Scope.CLASS)
+ *  private TemporaryFolder sharedTemporaryFolder;
+ * </pre>
  * </ul>
  *
  * <p>Usage examples:
@@ -124,13 +142,64 @@ import org.junit.jupiter.api.extension.ParameterResolver;
  * }
  * </pre>
  *
+ * <p>Pre-populating each {@code TemporaryFolder} with the contents of a template directory:
+ *
+ * <pre>
+ * &#064;ExtendWith(TemporaryFolderExtension.class)
+ * &#064;TemporaryFolderTemplate("fixtures/dataset")
+ * public class MyTest {
+ *
+ *     &#064;Test
+ *     public void testUsingTheDataset(TemporaryFolder temporaryFolder) {
+ *         // the temporary folder already contains a copy of "fixtures/dataset"
+ *         // ...
+ *     }
+ * }
+ * </pre>
+ *
+ * <p>Reporting on, and limiting, the disk usage of each test's {@code TemporaryFolder}:
+ *
+ * <pre>
+ * &#064;ExtendWith(TemporaryFolderExtension.class)
+ * &#064;TemporaryFolderQuota(maxBytes = 10 * 1024 * 1024)
+ * public class MyTest {
+ *
+ *     &#064;Test
+ *     public void testUsingTemporaryFile(TemporaryFolder temporaryFolder) {
+ *         // this test will fail if it leaves more than 10MB in its temporary folder
+ *         // ...
+ *     }
+ * }
+ * </pre>
+ *
  * @see <a href="https://github.com/junit-team/junit4/wiki/Rules#temporaryfolder-rule">JUnit 4
  *     TemporaryFolder Rule</a>
  * @since 1.0.0
  */
-public class TemporaryFolderExtension implements ParameterResolver {
+public class TemporaryFolderExtension
+    implements ParameterResolver,
+        BeforeAllCallback,
+        BeforeEachCallback,
+        AfterEachCallback,
+        AfterAllCallback {
+
+  public static final String REPORT_FILES = "temporaryFolder.files";
+  public static final String REPORT_BYTES = "temporaryFolder.bytes";
+  public static final String REPORT_PEAK_BYTES = "temporaryFolder.peakBytes";
+  public static final String REPORT_ARCHIVE = "temporaryFolder.archive";
 
   private static final Namespace NAMESPACE = Namespace.create(TemporaryFolderExtension.class);
+  private static final String FOLDERS_KEY = "temporaryFolders";
+  private static final String FAILED_KEY = "failed";
+
+  /**
+   * Constructs the extension and, if this is the first extension instance in this JVM, starts a
+   * background sweep for temporary folders orphaned by JVMs which were killed before they could
+   * clean up after themselves.
+   */
+  public TemporaryFolderExtension() {
+    OrphanSweeper.sweepInBackground();
+  }
 
   /**
    * Does this extension support injection for parameters of the type described by the given {@code
@@ -157,17 +226,314 @@ public class TemporaryFolderExtension implements ParameterResolver {
    * @param parameterContext the context for the parameter for which an argument should be resolved
    * @param extensionContext the <em>context</em> in which the current test or container is being
    *     executed
-   * @return a new {@link TemporaryFolder}
+   * @return a new {@link TemporaryFolder}, populated from the {@link TemporaryFolderTemplate} (if
+   *     any) which applies to the current test
    * @throws ParameterResolutionException
    */
   @Override
   public Object resolveParameter(
       ParameterContext parameterContext, ExtensionContext extensionContext)
       throws ParameterResolutionException {
+    return getOrCreate(extensionContext, parameterContext);
+  }
+
+  /**
+   * Inject a {@link TemporaryFolder} into any static fields which are annotated with {@link
+   * TempFolder} and have a scope wider than {@link Scope#METHOD}.
+   *
+   * @param extensionContext the <em>context</em> in which the current test or container is being
+   *     executed
+   * @throws Exception
+   */
+  @Override
+  public void beforeAll(ExtensionContext extensionContext) throws Exception {
+    for (Field field : findTempFolderFields(extensionContext.getRequiredTestClass())) {
+      if (isStatic(field) && scopeOf(field) != Scope.METHOD) {
+        inject(field, null, extensionContext);
+      }
+    }
+  }
+
+  /**
+   * Inject a {@link TemporaryFolder} into any instance fields which are annotated with {@link
+   * TempFolder} and into any static fields which are annotated with {@link TempFolder} and have
+   * {@link Scope#METHOD}.
+   *
+   * @param extensionContext the <em>context</em> in which the current test or container is being
+   *     executed
+   * @throws Exception
+   */
+  @Override
+  public void beforeEach(ExtensionContext extensionContext) throws Exception {
+    Object testInstance = extensionContext.getRequiredTestInstance();
+    for (Field field : findTempFolderFields(testInstance.getClass())) {
+      if (!isStatic(field) || scopeOf(field) == Scope.METHOD) {
+        inject(field, testInstance, extensionContext);
+      }
+    }
+  }
+
+  /**
+   * If the current test is subject to a {@link TemporaryFolderQuota} then measure, report on and
+   * enforce the quota for the temporary folders created for this test. Any temporary folders
+   * created for the test class are also measured and enforced (but not reported on until {@link
+   * #afterAll(ExtensionContext)}) so that the test which pushes a shared folder over its quota is
+   * the test which fails.
+   *
+   * <p>If the current test failed, including by exceeding its quota, and is subject to a {@link
+   * TemporaryFolderRetention} then archive the temporary folders created for this test.
+   *
+   * @param extensionContext the <em>context</em> in which the current test or container is being
+   *     executed
+   * @throws Exception
+   */
+  @Override
+  public void afterEach(ExtensionContext extensionContext) throws Exception {
+    TemporaryFolderException quotaExceeded = null;
+    Optional<TemporaryFolderQuota> quota =
+        findConfiguration(extensionContext, TemporaryFolderQuota.class);
+    if (quota.isPresent()) {
+      try {
+        checkUsage(extensionContext, quota.get(), true);
+        checkUsage(classContext(extensionContext), quota.get(), false);
+      } catch (TemporaryFolderException ex) {
+        quotaExceeded = ex;
+      }
+    }
+
+    if (extensionContext.getExecutionException().isPresent() || quotaExceeded != null) {
+      // remember the failure, the class's shared folders are retained once the class completes
+      getStore(classContext(extensionContext), this.getClass()).put(FAILED_KEY, true);
+
+      Optional<TemporaryFolderRetention> retention =
+          findConfiguration(extensionContext, TemporaryFolderRetention.class);
+      if (retention.isPresent()) {
+        retain(extensionContext, retention.get());
+      }
+    }
+
+    if (quotaExceeded != null) {
+      throw quotaExceeded;
+    }
+  }
+
+  /**
+   * If the current test class is subject to a {@link TemporaryFolderQuota} then measure, report on
+   * and enforce the quota for the temporary folders created for this test class.
+   *
+   * <p>If the current test class is subject to a {@link TemporaryFolderRetention} and any part of
+   * it failed, including by exceeding its quota, then archive the temporary folders created for
+   * this test class.
+   *
+   * @param extensionContext the <em>context</em> in which the current test or container is being
+   *     executed
+   * @throws Exception
+   */
+  @Override
+  public void afterAll(ExtensionContext extensionContext) throws Exception {
+    TemporaryFolderException quotaExceeded = null;
+    Optional<TemporaryFolderQuota> quota =
+        findConfiguration(extensionContext, TemporaryFolderQuota.class);
+    if (quota.isPresent()) {
+      try {
+        checkUsage(extensionContext, quota.get(), true);
+      } catch (TemporaryFolderException ex) {
+        quotaExceeded = ex;
+      }
+    }
+
+    Optional<TemporaryFolderRetention> retention =
+        findConfiguration(extensionContext, TemporaryFolderRetention.class);
+    if (retention.isPresent() && (quotaExceeded != null || hasFailed(extensionContext))) {
+      retain(extensionContext, retention.get());
+    }
+
+    if (quotaExceeded != null) {
+      throw quotaExceeded;
+    }
+  }
+
+  private void inject(Field field, Object target, ExtensionContext extensionContext)
+      throws IllegalAccessException {
+    if (!appliesTo(field.getType())) {
+      throw new ExtensionConfigurationException(
+          String.format(
+              "Field '%s' is annotated with @TempFolder but it is not of type: %s",
+              field, TemporaryFolder.class.getName()));
+    }
+
+    TemporaryFolder temporaryFolder;
+    switch (scopeOf(field)) {
+      case SUITE:
+        // there is one suite folder, shared by every field with this scope
+        temporaryFolder = getOrCreate(extensionContext.getRoot(), Scope.SUITE);
+        break;
+      case CLASS:
+        temporaryFolder = getOrCreate(classContext(extensionContext), field);
+        break;
+      default:
+        temporaryFolder = getOrCreate(extensionContext, field);
+    }
+
+    field.setAccessible(true);
+    field.set(target, temporaryFolder);
+  }
+
+  /**
+   * Get the {@link TemporaryFolder} stored against the given {@code key} in the given {@code
+   * extensionContext}, creating it if necessary. The {@link TemporaryFolder} will be destroyed when
+   * the given {@code extensionContext} is closed.
+   */
+  private TemporaryFolder getOrCreate(ExtensionContext extensionContext, Object key) {
+    Queue<TemporaryFolder> folders = foldersOf(extensionContext);
     return extensionContext
         .getStore(NAMESPACE)
         .getOrComputeIfAbsent(
-            parameterContext, key -> new TemporaryFolder(), TemporaryFolder.class);
+            key,
+            k -> {
+              TemporaryFolder temporaryFolder = createTemporaryFolder(extensionContext);
+              folders.add(temporaryFolder);
+              return temporaryFolder;
+            },
+            TemporaryFolder.class);
+  }
+
+  /**
+   * Get the {@link TemporaryFolder}s which were created for (and hence will be destroyed with) the
+   * given {@code extensionContext}. These are held in a store which is private to the given {@code
+   * extensionContext} so that a test never sees the folders created for its parent. The queue is
+   * lock free since, when tests run in parallel, sibling tests may be adding to the queue owned by
+   * their (shared) class context at the same time.
+   */
+  @SuppressWarnings("unchecked")
+  private Queue<TemporaryFolder> foldersOf(ExtensionContext extensionContext) {
+    return getStore(extensionContext, this.getClass())
+        .getOrComputeIfAbsent(
+            FOLDERS_KEY, key -> new ConcurrentLinkedQueue<TemporaryFolder>(), Queue.class);
+  }
+
+  /**
+   * Measure the temporary folders created for the given {@code extensionContext} (if any), publish
+   * the measurement if {@code report} is true and fail if the measurement exceeds the given {@code
+   * quota}.
+   */
+  private void checkUsage(
+      ExtensionContext extensionContext, TemporaryFolderQuota quota, boolean report)
+      throws IOException {
+    Queue<TemporaryFolder> folders = foldersOf(extensionContext);
+    if (folders.isEmpty()) {
+      return;
+    }
+
+    DiskUsage usage = DiskUsage.NONE;
+    for (TemporaryFolder temporaryFolder : folders) {
+      usage = usage.plus(temporaryFolder.getUsage());
+    }
+
+    if (report) {
+      report(extensionContext, usage);
+    }
+    enforce(quota, usage);
+  }
+
+  /**
+   * Archive each of the temporary folders created for the given {@code extensionContext} into the
+   * given {@code retention}'s directory and publish the path of each archive.
+   */
+  private void retain(ExtensionContext extensionContext, TemporaryFolderRetention retention) {
+    Path archiveDirectory = Paths.get(retention.directory());
+    String name =
+        extensionContext.getRequiredTestClass().getName()
+            + extensionContext.getTestMethod().map(method -> "." + method.getName()).orElse("");
+    for (TemporaryFolder temporaryFolder : foldersOf(extensionContext)) {
+      try {
+        Optional<Path> archive = temporaryFolder.archive(archiveDirectory, name);
+        if (archive.isPresent()) {
+          extensionContext.publishReportEntry(REPORT_ARCHIVE, archive.get().toString());
+        }
+      } catch (IOException ex) {
+        throw new TemporaryFolderException(
+            String.format("Failed to archive temporary folder to: '%s'", archiveDirectory), ex);
+      }
+    }
+  }
+
+  private boolean hasFailed(ExtensionContext extensionContext) {
+    return extensionContext.getExecutionException().isPresent()
+        || getStore(extensionContext, this.getClass()).get(FAILED_KEY) != null;
+  }
+
+  private void report(ExtensionContext extensionContext, DiskUsage usage) {
+    Map<String, String> entries = new LinkedHashMap<>();
+    entries.put(REPORT_FILES, Long.toString(usage.getFiles()));
+    entries.put(REPORT_BYTES, Long.toString(usage.getBytes()));
+    entries.put(REPORT_PEAK_BYTES, Long.toString(usage.getPeakBytes()));
+    extensionContext.publishReportEntry(entries);
+  }
+
+  private void enforce(TemporaryFolderQuota quota, DiskUsage usage) {
+    if (usage.getBytes() > quota.maxBytes() || usage.getFiles() > quota.maxFiles()) {
+      throw new TemporaryFolderException(
+          String.format(
+              "Temporary folder quota exceeded, quota: {maxBytes=%s, maxFiles=%s}, usage: %s",
+              quota.maxBytes(), quota.maxFiles(), usage));
+    }
+  }
+
+  /**
+   * Create a {@link TemporaryFolder} for the given {@code extensionContext}. The folder's root is
+   * not created until it is first used, at which point it is populated from the {@link
+   * TemporaryFolderTemplate} (if any) which applies to the given {@code extensionContext}.
+   */
+  private TemporaryFolder createTemporaryFolder(ExtensionContext extensionContext) {
+    return findConfiguration(extensionContext, TemporaryFolderTemplate.class)
+        .map(template -> new TemporaryFolder(root -> FolderTemplates.materialize(template, root)))
+        .orElseGet(TemporaryFolder::new);
+  }
+
+  /**
+   * Find the configuration annotation of the given {@code type} which applies to the given {@code
+   * extensionContext}, a method level declaration takes precedence over a class level declaration.
+   */
+  private <A extends Annotation> Optional<A> findConfiguration(
+      ExtensionContext extensionContext, Class<A> type) {
+    Optional<A> annotation = findAnnotation(extensionContext.getTestMethod(), type);
+    if (!annotation.isPresent()) {
+      annotation = findAnnotation(extensionContext.getTestClass(), type);
+    }
+    return annotation;
+  }
+
+  /**
+   * Walk up from the given {@code extensionContext} to the nearest context which is not associated
+   * with a test method, this will be the context for the test class.
+   */
+  private ExtensionContext classContext(ExtensionContext extensionContext) {
+    ExtensionContext context = extensionContext;
+    while (context.getTestMethod().isPresent() && context.getParent().isPresent()) {
+      context = context.getParent().get();
+    }
+    return context;
+  }
+
+  private List<Field> findTempFolderFields(Class<?> clazz) {
+    List<Field> fields = new ArrayList<>();
+    for (Class<?> current = clazz; current != null; current = current.getSuperclass()) {
+      for (Field field : current.getDeclaredFields()) {
+        if (findAnnotation(field, TempFolder.class).isPresent()) {
+          fields.add(field);
+        }
+      }
+    }
+    return fields;
+  }
+
+  private Scope scopeOf(Field field) {
+    return findAnnotation(field, TempFolder.class).map(TempFolder::scope).orElse(Scope.METHOD);
+  }
+
+  private boolean isStatic(Field field) {
+    return Modifier.isStatic(field.getModifiers());
   }
 
   private boolean appliesTo(Class<?> clazz) {
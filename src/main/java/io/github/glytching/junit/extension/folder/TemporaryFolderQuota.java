@@ -0,0 +1,62 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.glytching.junit.extension.folder;
+
+import java.lang.annotation.*;
+
+/**
+ * Asks the {@link TemporaryFolderExtension} to measure the {@link DiskUsage} of the temporary
+ * folders used by a test, to publish that usage as report entries and, optionally, to fail the
+ * test if the usage exceeds a limit. This annotation can be used at class level and at method
+ * level, a method level annotation takes precedence over a class level annotation.
+ *
+ * <p>Usage is measured after each test, so a test which exceeds a limit fails once it completes
+ * rather than at the moment the limit is breached. A folder shared across tests (see {@link
+ * TempFolder.Scope}) is measured after each test which can see it so the test which pushes it over
+ * the limit is the one which fails.
+ *
+ * <p>Usage example:
+ *
+ * <pre>
+ *  // report on usage without enforcing any limits
+ *  &#064;TemporaryFolderQuota
+ *
+ *  // fail any test which leaves more than 10MB or more than 100 files in its temporary folders
+ *  &#064;TemporaryFolderQuota(maxBytes = 10 * 1024 * 1024, maxFiles = 100)
+ * </pre>
+ *
+ * @since 2.7.0
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD, ElementType.ANNOTATION_TYPE})
+@Documented
+public @interface TemporaryFolderQuota {
+
+  /**
+   * The maximum total size, in bytes, of the files in a test's temporary folders.
+   *
+   * @return the maximum number of bytes, defaults to unlimited
+   */
+  long maxBytes() default Long.MAX_VALUE;
+
+  /**
+   * The maximum number of files in a test's temporary folders.
+   *
+   * @return the maximum number of files, defaults to unlimited
+   */
+  long maxFiles() default Long.MAX_VALUE;
+}
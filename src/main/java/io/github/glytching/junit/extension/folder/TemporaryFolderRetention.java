@@ -0,0 +1,56 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.glytching.junit.extension.folder;
+
+import java.lang.annotation.*;
+
+/**
+ * Asks the {@link TemporaryFolderExtension} to keep the contents of a test's temporary folders when
+ * that test fails. The contents are streamed into a zip archive in the given {@link #directory()}
+ * before the folders are deleted, a test which passes has its folders deleted as usual. The path of
+ * each archive is published as a report entry. This annotation can be used at class level and at
+ * method level, a method level annotation takes precedence over a class level annotation.
+ *
+ * <p>A folder shared by the tests in a class (see {@link TempFolder.Scope#CLASS}) is archived once
+ * all of the tests in that class have run, if any of them failed. A {@link TempFolder.Scope#SUITE}
+ * folder is never archived.
+ *
+ * <p>Usage example:
+ *
+ * <pre>
+ *  // archive to the default directory: target/temporary-folders
+ *  &#064;TemporaryFolderRetention
+ *
+ *  // archive to the given directory
+ *  &#064;TemporaryFolderRetention(directory = "build/failed-test-output")
+ * </pre>
+ *
+ * @since 2.7.0
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD, ElementType.ANNOTATION_TYPE})
+@Documented
+public @interface TemporaryFolderRetention {
+
+  /**
+   * The directory into which archives are written, a relative path is resolved against the working
+   * directory (which, for a Maven build, is the module's base directory).
+   *
+   * @return the archive directory, defaults to {@code target/temporary-folders}
+   */
+  String directory() default "target/temporary-folders";
+}
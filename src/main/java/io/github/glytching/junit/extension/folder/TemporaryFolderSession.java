@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.glytching.junit.extension.folder;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinWorkerThread;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.CREATE_NEW;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * The parent directory for every {@link TemporaryFolder} created by this JVM. The session directory
+ * contains an {@link #OWNER_FILE} which records the owning process and which is exclusively locked
+ * for the lifetime of the JVM. The operating system releases that lock when the process exits, no
+ * matter how it exits, so a session whose owner file can be locked by someone else belongs to a
+ * dead JVM and can be deleted by the {@link OrphanSweeper}.
+ *
+ * <p>The session directory is sharded into one sub directory per worker thread (see {@link
+ * #workerDirectory()}) so that tests running in parallel create and delete their folders in
+ * different parent directories rather than all contending on the same one.
+ *
+ * <p>The session directory is deleted by a shutdown hook when the JVM exits normally.
+ */
+final class TemporaryFolderSession {
+  static final String SESSION_PREFIX = "junit-session";
+  static final String OWNER_FILE = ".owner";
+  static final String WORKER_PREFIX = "w";
+
+  // each worker resolves (and, if necessary, creates) its own shard at most once
+  private static final ThreadLocal<Path> workerDirectory = new ThreadLocal<>();
+
+  private static volatile TemporaryFolderSession current;
+
+  private final Path directory;
+  private final FileChannel owner;
+
+  private TemporaryFolderSession() throws IOException {
+    directory = Files.createTempDirectory(SESSION_PREFIX);
+    owner = FileChannel.open(directory.resolve(OWNER_FILE), CREATE_NEW, WRITE);
+    // held (and hence kept alive) by the channel until the channel is closed
+    owner.lock();
+    owner.write(ByteBuffer.wrap(ManagementFactory.getRuntimeMXBean().getName().getBytes(UTF_8)));
+
+    Runtime.getRuntime().addShutdownHook(new Thread(this::close, "temporary-folder-session"));
+  }
+
+  /**
+   * Get the session directory, creating it if this is the first request for it.
+   *
+   * @return the directory within which this JVM should create its temporary folders
+   */
+  static Path directory() {
+    TemporaryFolderSession session = current;
+    if (session == null) {
+      synchronized (TemporaryFolderSession.class) {
+        session = current;
+        if (session == null) {
+          try {
+            session = new TemporaryFolderSession();
+          } catch (IOException ex) {
+            throw new TemporaryFolderException("Failed to prepare temporary folder session!", ex);
+          }
+          current = session;
+        }
+      }
+    }
+    return session.directory;
+  }
+
+  /**
+   * Get the calling worker's shard of the session directory, creating it if this is the first
+   * request for it. A thread belonging to a {@link java.util.concurrent.ForkJoinPool} (which is how
+   * the Jupiter engine runs tests in parallel) is given the shard for its pool index, any other
+   * thread shares shard zero.
+   *
+   * @return the directory within which the calling thread should create its temporary folders
+   */
+  static Path workerDirectory() {
+    Path shard = workerDirectory.get();
+    if (shard == null) {
+      shard = directory().resolve(WORKER_PREFIX + workerIndex());
+      try {
+        // tolerates a concurrent creation of the same shard by a worker from another pool
+        Files.createDirectories(shard);
+      } catch (IOException ex) {
+        throw new TemporaryFolderException("Failed to prepare temporary folder shard!", ex);
+      }
+      workerDirectory.set(shard);
+    }
+    return shard;
+  }
+
+  private static int workerIndex() {
+    Thread thread = Thread.currentThread();
+    return thread instanceof ForkJoinWorkerThread
+        ? ((ForkJoinWorkerThread) thread).getPoolIndex()
+        : 0;
+  }
+
+  /**
+   * @return the session directory if one has been created, null otherwise; this never creates a
+   *     session directory
+   */
+  static Path existingDirectory() {
+    TemporaryFolderSession session = current;
+    return session == null ? null : session.directory;
+  }
+
+  private void close() {
+    try {
+      owner.close();
+      TemporaryFolder.delete(directory);
+    } catch (IOException ex) {
+      // swallowed, anything left behind will be removed by a future sweep
+    }
+  }
+}
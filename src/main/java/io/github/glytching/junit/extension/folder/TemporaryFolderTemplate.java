@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.glytching.junit.extension.folder;
+
+import java.lang.annotation.*;
+
+/**
+ * Declares a directory whose contents will be copied into every {@link TemporaryFolder} provided
+ * by the {@link TemporaryFolderExtension}. This annotation can be used at class level and at method
+ * level, a method level annotation takes precedence over a class level annotation.
+ *
+ * <p>The {@link #value()} is resolved against the classpath first and then against the file
+ * system. A template which is packaged inside a jar is extracted once per JVM and the extracted
+ * copy is reused from then on.
+ *
+ * <p>Usage example:
+ *
+ * <pre>
+ *  // copy the contents of the classpath directory "fixtures/dataset" into each TemporaryFolder
+ *  &#064;TemporaryFolderTemplate("fixtures/dataset")
+ *
+ *  // hard link, rather than copy, the contents of "fixtures/dataset" into each TemporaryFolder
+ *  &#064;TemporaryFolderTemplate(value = "fixtures/dataset", link = true)
+ * </pre>
+ *
+ * @since 2.7.0
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD, ElementType.ANNOTATION_TYPE})
+@Documented
+public @interface TemporaryFolderTemplate {
+
+  /**
+   * The location of the template directory, either a classpath resource or a file system path.
+   *
+   * @return the location of the template directory
+   */
+  String value();
+
+  /**
+   * When true, the template's files are hard linked into each {@link TemporaryFolder} rather than
+   * copied. This is much cheaper for large templates. The files are linked to a read-only snapshot
+   * of the template, which is made once, so a test which tries to modify a linked file in place
+   * fails fast (tests must replace, rather than modify in place, any linked file). If read-only
+   * files cannot be relied upon (e.g. for the root user or on Windows) then the template is copied
+   * instead, as is any file which cannot be linked.
+   *
+   * @return true if template files should be hard linked, false if they should be copied
+   */
+  boolean link() default false;
+}
@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.glytching.junit.extension.random;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+
+/**
+ * Fills primitive arrays and buffers with random data in bulk. This uses an xorshift64* generator,
+ * which needs only a few shifts and a multiply per 64 random bits and, unlike {@link
+ * java.util.Random}, no atomic update of shared state, so megabytes of random data can be produced
+ * in a few milliseconds. Byte arrays and buffers are filled 64 bits at a time through a {@link
+ * LongBuffer} view, in little endian order. The output is fully determined by the seed.
+ *
+ * <p>Instances are not thread safe, each fill should use its own instance.
+ */
+final class BulkRandom {
+
+  // xorshift has a fixed point at zero, so a zero seed is replaced with this (arbitrary) constant
+  private static final long ZERO_SEED_REPLACEMENT = 0x9E3779B97F4A7C15L;
+
+  private long state;
+
+  BulkRandom(long seed) {
+    this.state = seed == 0 ? ZERO_SEED_REPLACEMENT : seed;
+  }
+
+  long nextLong() {
+    state ^= state >>> 12;
+    state ^= state << 25;
+    state ^= state >>> 27;
+    return state * 0x2545F4914F6CDD1DL;
+  }
+
+  long[] longs(int size) {
+    long[] longs = new long[size];
+    for (int i = 0; i < size; i++) {
+      longs[i] = nextLong();
+    }
+    return longs;
+  }
+
+  int[] ints(int size) {
+    int[] ints = new int[size];
+    int i = 0;
+    for (; i + 1 < size; i += 2) {
+      long next = nextLong();
+      ints[i] = (int) (next >>> 32);
+      ints[i + 1] = (int) next;
+    }
+    if (i < size) {
+      ints[i] = (int) (nextLong() >>> 32);
+    }
+    return ints;
+  }
+
+  double[] doubles(int size) {
+    double[] doubles = new double[size];
+    for (int i = 0; i < size; i++) {
+      // the top 53 bits, scaled to [0, 1), as per java.util.Random.nextDouble
+      doubles[i] = (nextLong() >>> 11) * 0x1.0p-53;
+    }
+    return doubles;
+  }
+
+  byte[] bytes(int size) {
+    byte[] bytes = new byte[size];
+    fill(ByteBuffer.wrap(bytes));
+    return bytes;
+  }
+
+  ByteBuffer buffer(int size, boolean direct) {
+    ByteBuffer buffer = direct ? ByteBuffer.allocateDirect(size) : ByteBuffer.allocate(size);
+    fill(buffer);
+    return buffer;
+  }
+
+  /** Fill the remaining bytes of the given {@code buffer} without changing its position. */
+  private void fill(ByteBuffer buffer) {
+    // a fixed byte order, so a seed yields the same bytes on every platform
+    ByteBuffer target = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+    LongBuffer longs = target.asLongBuffer();
+    while (longs.hasRemaining()) {
+      longs.put(nextLong());
+    }
+
+    target.position(target.position() + longs.capacity() * Long.BYTES);
+    if (target.hasRemaining()) {
+      long tail = nextLong();
+      while (target.hasRemaining()) {
+        target.put((byte) tail);
+        tail >>>= 8;
+      }
+    }
+  }
+}
@@ -0,0 +1,50 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.glytching.junit.extension.random;
+
+/**
+ * The statistical distribution of random numeric values, see {@link Random#distribution()}. Every
+ * distribution other than {@link #UNIFORM} is shaped by {@link Random#range()}.
+ *
+ * @since 2.7.0
+ */
+public enum Distribution {
+
+  /** Values are spread evenly across every possible value of the type, this is the default. */
+  UNIFORM,
+
+  /**
+   * Values follow a normal distribution centred on the middle of {@code [0, range)}, with a
+   * standard deviation of one sixth of the range, so nearly all values fall within {@code [0,
+   * range)}.
+   */
+  GAUSSIAN,
+
+  /**
+   * Values fall within {@code [0, range)} and follow Zipf's law: {@code 0} is the most frequent
+   * value, {@code 1} is half as frequent, {@code 2} is a third as frequent and so on. This
+   * resembles the skewed key access seen by real world caches, where a few keys are very hot.
+   */
+  ZIPFIAN,
+
+  /**
+   * Roughly a quarter of values are drawn from the type's edge cases (e.g. {@code 0}, {@code -1},
+   * {@code MIN_VALUE}, {@code MAX_VALUE} and, for floating point types, {@code NaN} and the
+   * infinities), the rest are uniform.
+   */
+  EDGE_CASES
+}
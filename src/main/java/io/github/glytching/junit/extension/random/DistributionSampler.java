@@ -0,0 +1,221 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.glytching.junit.extension.random;
+
+import org.junit.jupiter.api.extension.ExtensionConfigurationException;
+
+/**
+ * Draws numeric values from a {@link Distribution}. A sampler holds no mutable state so it can be
+ * shared by any number of threads, provided each supplies a thread safe {@link java.util.Random}.
+ */
+abstract class DistributionSampler {
+
+  private static final int[] INT_EDGE_CASES = {
+    0, 1, -1, Integer.MIN_VALUE, Integer.MIN_VALUE + 1, Integer.MAX_VALUE, Integer.MAX_VALUE - 1
+  };
+  private static final long[] LONG_EDGE_CASES = {
+    0, 1, -1, Long.MIN_VALUE, Long.MIN_VALUE + 1, Long.MAX_VALUE, Long.MAX_VALUE - 1
+  };
+  private static final double[] DOUBLE_EDGE_CASES = {
+    0.0,
+    -0.0,
+    1.0,
+    -1.0,
+    Double.MIN_VALUE,
+    Double.MIN_NORMAL,
+    Double.MAX_VALUE,
+    -Double.MAX_VALUE,
+    Double.POSITIVE_INFINITY,
+    Double.NEGATIVE_INFINITY,
+    Double.NaN
+  };
+
+  /**
+   * @param distribution the distribution to sample
+   * @param range shapes every distribution other than {@link Distribution#UNIFORM}, see {@link
+   *     Distribution}
+   * @return a sampler for the given {@code distribution}
+   * @throws ExtensionConfigurationException if the given {@code range} is not positive
+   */
+  static DistributionSampler of(Distribution distribution, long range) {
+    if (range < 1) {
+      throw new ExtensionConfigurationException(
+          String.format("The range of a random distribution must be positive: %s", range));
+    }
+    switch (distribution) {
+      case GAUSSIAN:
+        return new Gaussian(range);
+      case ZIPFIAN:
+        return new Zipfian(range);
+      case EDGE_CASES:
+        return new EdgeCases();
+      default:
+        return new Uniform();
+    }
+  }
+
+  abstract int nextInt(java.util.Random random);
+
+  abstract long nextLong(java.util.Random random);
+
+  abstract double nextDouble(java.util.Random random);
+
+  private static final class Uniform extends DistributionSampler {
+    @Override
+    int nextInt(java.util.Random random) {
+      return random.nextInt();
+    }
+
+    @Override
+    long nextLong(java.util.Random random) {
+      return random.nextLong();
+    }
+
+    @Override
+    double nextDouble(java.util.Random random) {
+      return random.nextDouble();
+    }
+  }
+
+  private static final class Gaussian extends DistributionSampler {
+    private final double mean;
+    private final double standardDeviation;
+
+    private Gaussian(long range) {
+      this.mean = range / 2.0;
+      this.standardDeviation = range / 6.0;
+    }
+
+    @Override
+    int nextInt(java.util.Random random) {
+      return (int) Math.round(nextDouble(random));
+    }
+
+    @Override
+    long nextLong(java.util.Random random) {
+      return Math.round(nextDouble(random));
+    }
+
+    @Override
+    double nextDouble(java.util.Random random) {
+      return mean + random.nextGaussian() * standardDeviation;
+    }
+  }
+
+  private static final class EdgeCases extends DistributionSampler {
+    @Override
+    int nextInt(java.util.Random random) {
+      return isEdgeCase(random)
+          ? INT_EDGE_CASES[random.nextInt(INT_EDGE_CASES.length)]
+          : random.nextInt();
+    }
+
+    @Override
+    long nextLong(java.util.Random random) {
+      return isEdgeCase(random)
+          ? LONG_EDGE_CASES[random.nextInt(LONG_EDGE_CASES.length)]
+          : random.nextLong();
+    }
+
+    @Override
+    double nextDouble(java.util.Random random) {
+      return isEdgeCase(random)
+          ? DOUBLE_EDGE_CASES[random.nextInt(DOUBLE_EDGE_CASES.length)]
+          : random.nextDouble();
+    }
+
+    private boolean isEdgeCase(java.util.Random random) {
+      return random.nextInt(4) == 0;
+    }
+  }
+
+  /**
+   * Samples Zipf's law (with an exponent of 1) over {@code [0, range)} in constant time, whatever
+   * the range, using the rejection-inversion method described in: W. Hormann and G. Derflinger,
+   * "Rejection-inversion to generate variates from monotone discrete distributions", ACM
+   * Transactions on Modeling and Computer Simulation, 6(3), 1996.
+   */
+  private static final class Zipfian extends DistributionSampler {
+    private static final double EXPONENT = 1.0;
+
+    private final double numberOfElements;
+    private final double hIntegralX1;
+    private final double hIntegralNumberOfElements;
+    private final double s;
+
+    private Zipfian(long range) {
+      this.numberOfElements = range;
+      this.hIntegralX1 = hIntegral(1.5) - 1.0;
+      this.hIntegralNumberOfElements = hIntegral(numberOfElements + 0.5);
+      this.s = 2.0 - hIntegralInverse(hIntegral(2.5) - h(2));
+    }
+
+    @Override
+    int nextInt(java.util.Random random) {
+      return (int) nextLong(random);
+    }
+
+    @Override
+    long nextLong(java.util.Random random) {
+      while (true) {
+        // uniformly distributed in (hIntegralX1, hIntegralNumberOfElements]
+        double u =
+            hIntegralNumberOfElements
+                + random.nextDouble() * (hIntegralX1 - hIntegralNumberOfElements);
+        double x = hIntegralInverse(u);
+        long k = Math.max(1, Math.min((long) (x + 0.5), (long) numberOfElements));
+        if (k - x <= s || u >= hIntegral(k + 0.5) - h(k)) {
+          // ranks are 1 based
+          return k - 1;
+        }
+      }
+    }
+
+    @Override
+    double nextDouble(java.util.Random random) {
+      return nextLong(random);
+    }
+
+    private static double h(double x) {
+      return Math.exp(-EXPONENT * Math.log(x));
+    }
+
+    private static double hIntegral(double x) {
+      double logX = Math.log(x);
+      return helper2((1.0 - EXPONENT) * logX) * logX;
+    }
+
+    private static double hIntegralInverse(double x) {
+      double t = Math.max(-1.0, x * (1.0 - EXPONENT));
+      return Math.exp(helper1(t) * x);
+    }
+
+    /** @return {@code log(1 + x) / x}, accurately for small {@code x} */
+    private static double helper1(double x) {
+      return Math.abs(x) > 1e-8
+          ? Math.log1p(x) / x
+          : 1.0 - x * (1.0 / 2.0 - x * (1.0 / 3.0 - x * (1.0 / 4.0)));
+    }
+
+    /** @return {@code (exp(x) - 1) / x}, accurately for small {@code x} */
+    private static double helper2(double x) {
+      return Math.abs(x) > 1e-8
+          ? Math.expm1(x) / x
+          : 1.0 + x * (1.0 / 2.0) * (1.0 + x * (1.0 / 3.0) * (1.0 + x * (1.0 / 4.0)));
+    }
+  }
+}
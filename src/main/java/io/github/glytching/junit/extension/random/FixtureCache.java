@@ -0,0 +1,164 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.glytching.junit.extension.random;
+
+import org.junit.jupiter.api.extension.ExtensionConfigurationException;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.UUID;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.READ;
+
+/**
+ * A disk cache of generated random values. Each value is serialized to its own file, named for a
+ * hash of its key, and is reloaded (by memory mapping that file) instead of being regenerated.
+ * Every load deserializes a fresh copy so a test which mutates a cached value cannot affect any
+ * other test.
+ *
+ * <p>A file which cannot be read (e.g. because it was written by an incompatible version of a
+ * class) is treated as a cache miss, the value is regenerated and the file is replaced. Files are
+ * written to a temporary file and then moved into place so a reader never sees a partial file,
+ * even when tests run in parallel or in several JVMs.
+ */
+final class FixtureCache {
+  static final String DEFAULT_DIRECTORY = "target/random-fixtures";
+
+  private static final Logger logger = Logger.getLogger(FixtureCache.class.getName());
+  private static final String SUFFIX = ".bin";
+
+  private final Path directory;
+
+  FixtureCache(Path directory) {
+    this.directory = directory;
+  }
+
+  /**
+   * @return the cache in the directory named by the {@link RandomBeansExtension#CACHE_PROPERTY}
+   *     system property or, if that is not set, in {@link #DEFAULT_DIRECTORY}
+   */
+  static FixtureCache configured() {
+    String configured = System.getProperty(RandomBeansExtension.CACHE_PROPERTY);
+    return new FixtureCache(
+        Paths.get(
+            configured == null || configured.trim().isEmpty()
+                ? DEFAULT_DIRECTORY
+                : configured.trim()));
+  }
+
+  /**
+   * @param key identifies the value, two values with the same key must be interchangeable
+   * @param generator generates the value if it is not cached
+   * @return a copy of the cached value for the given {@code key}, generating and caching it if
+   *     necessary
+   * @throws ExtensionConfigurationException if the generated value is not {@link Serializable}
+   */
+  Object get(String key, Supplier<Object> generator) {
+    Path file = directory.resolve(UUID.nameUUIDFromBytes(key.getBytes(UTF_8)) + SUFFIX);
+    try {
+      return read(file, key);
+    } catch (NoSuchFileException ex) {
+      // a miss
+    } catch (IOException | ClassNotFoundException | RuntimeException ex) {
+      logger.log(Level.FINE, String.format("Regenerating unreadable fixture [%s]", file), ex);
+    }
+
+    Object value = generator.get();
+    if (!(value instanceof Serializable)) {
+      throw new ExtensionConfigurationException(
+          String.format(
+              "Cannot cache a value which is not serializable: %s", value.getClass().getName()));
+    }
+    try {
+      write(file, key, value);
+    } catch (IOException ex) {
+      // caching is an optimisation, the test can still use the generated value
+      logger.log(Level.WARNING, String.format("Failed to cache fixture [%s]", file), ex);
+    }
+    return value;
+  }
+
+  private Object read(Path file, String key) throws IOException, ClassNotFoundException {
+    try (FileChannel channel = FileChannel.open(file, READ)) {
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      try (ObjectInputStream in =
+          new ObjectInputStream(new BufferedInputStream(new ByteBufferInputStream(buffer)))) {
+        // guards against (vanishingly unlikely) hash collisions
+        if (!key.equals(in.readUTF())) {
+          throw new InvalidObjectException(String.format("Key mismatch in [%s]", file));
+        }
+        return in.readObject();
+      }
+    }
+  }
+
+  private void write(Path file, String key, Object value) throws IOException {
+    Files.createDirectories(directory);
+    Path temporary = Files.createTempFile(directory, "fixture", ".tmp");
+    try {
+      try (ObjectOutputStream out =
+          new ObjectOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+        out.writeUTF(key);
+        out.writeObject(value);
+      }
+      Files.move(temporary, file, ATOMIC_MOVE, REPLACE_EXISTING);
+    } finally {
+      Files.deleteIfExists(temporary);
+    }
+  }
+
+  /** Reads a (memory mapped) buffer without copying it into a byte array first. */
+  private static final class ByteBufferInputStream extends InputStream {
+    private final ByteBuffer buffer;
+
+    private ByteBufferInputStream(ByteBuffer buffer) {
+      this.buffer = buffer;
+    }
+
+    @Override
+    public int read() {
+      return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) {
+      if (!buffer.hasRemaining()) {
+        return -1;
+      }
+      int count = Math.min(length, buffer.remaining());
+      buffer.get(bytes, offset, count);
+      return count;
+    }
+
+    @Override
+    public int available() {
+      return buffer.remaining();
+    }
+  }
+}
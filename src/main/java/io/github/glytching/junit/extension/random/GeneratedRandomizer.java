@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.glytching.junit.extension.random;
+
+import io.github.benas.randombeans.api.EnhancedRandom;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * The parent of every randomizer generated for a {@link RandomizableType}. This is public so that
+ * generated randomizers (which live in the same package as the type they randomize) can extend it,
+ * it is not intended to be extended by hand.
+ *
+ * @param <T> the randomized type
+ * @since 2.7.0
+ */
+public abstract class GeneratedRandomizer<T> {
+
+  /** The upper bound of a generated collection's size, matching the extension's default. */
+  private static final int MAX_COLLECTION_SIZE = 10;
+
+  /**
+   * @param random the source of random values for the returned instance's fields
+   * @return a new, fully populated, random instance
+   */
+  public abstract T nextObject(EnhancedRandom random);
+
+  /**
+   * @param random the source of random elements
+   * @param type the type of the elements
+   * @return a list of between 1 and 10 random instances of {@code type}
+   */
+  protected static <E> List<E> listOf(EnhancedRandom random, Class<E> type) {
+    return random.objects(type, collectionSize(random)).collect(Collectors.toList());
+  }
+
+  /**
+   * @param random the source of random elements
+   * @param type the type of the elements
+   * @return a set of up to 10 random instances of {@code type}
+   */
+  protected static <E> Set<E> setOf(EnhancedRandom random, Class<E> type) {
+    return random.objects(type, collectionSize(random)).collect(Collectors.toSet());
+  }
+
+  private static int collectionSize(EnhancedRandom random) {
+    return 1 + random.nextInt(MAX_COLLECTION_SIZE);
+  }
+}
@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.glytching.junit.extension.random;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static org.junit.platform.commons.support.AnnotationSupport.isAnnotated;
+
+/**
+ * Finds the {@link GeneratedRandomizer} for a {@link RandomizableType}. The lookup happens once per
+ * type per JVM.
+ */
+final class GeneratedRandomizers {
+  static final String SUFFIX = "_Randomizer";
+
+  private static final Logger logger = Logger.getLogger(GeneratedRandomizers.class.getName());
+
+  private static final ClassValue<GeneratedRandomizer<?>> RANDOMIZERS =
+      new ClassValue<GeneratedRandomizer<?>>() {
+        @Override
+        protected GeneratedRandomizer<?> computeValue(Class<?> type) {
+          return isAnnotated(type, RandomizableType.class) ? load(type) : null;
+        }
+      };
+
+  // this is a utility class - hide the public ctor
+  private GeneratedRandomizers() {}
+
+  /**
+   * @param type the type to be randomized
+   * @return the generated randomizer for the given {@code type} or null if the type is not a
+   *     {@link RandomizableType} or if its randomizer was not generated
+   */
+  static GeneratedRandomizer<?> find(Class<?> type) {
+    return RANDOMIZERS.get(type);
+  }
+
+  /**
+   * @param packageName the package of the randomized type, empty for the default package
+   * @param flatName the randomized type's binary name without its package, e.g. {@code
+   *     Outer$Inner}
+   * @return the fully qualified name of the randomizer generated for the type
+   */
+  static String randomizerName(String packageName, String flatName) {
+    String simpleName = flatName.replace('$', '_') + SUFFIX;
+    return packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+  }
+
+  private static GeneratedRandomizer<?> load(Class<?> type) {
+    String packageName = type.getPackage() == null ? "" : type.getPackage().getName();
+    String flatName =
+        packageName.isEmpty() ? type.getName() : type.getName().substring(packageName.length() + 1);
+    String name = randomizerName(packageName, flatName);
+    try {
+      return (GeneratedRandomizer<?>)
+          Class.forName(name, true, type.getClassLoader()).getConstructor().newInstance();
+    } catch (ClassNotFoundException ex) {
+      // annotation processing was disabled when the type was compiled
+      logger.fine(String.format("No generated randomizer for [%s]", type.getName()));
+      return null;
+    } catch (ReflectiveOperationException | ClassCastException ex) {
+      logger.log(Level.WARNING, String.format("Cannot use randomizer [%s]", name), ex);
+      return null;
+    }
+  }
+}
@@ -38,6 +38,29 @@ import java.lang.annotation.*;
  *
  *  // create a Stream containing two randomly generated instances of MyDomainObject
  *  &#064;Random(size = 2, type = MyDomainObject.class) Stream<MyDomainObject> anyStrings;
+ *
+ *  // create a lazy Stream (or Iterator or Iterable) of up to ten million instances of
+ *  // MyDomainObject, instances are only generated as they are consumed
+ *  &#064;Random(size = 10_000_000, type = MyDomainObject.class) Iterator<MyDomainObject> any;
+ *
+ *  // create an IntStream (or LongStream or DoubleStream) of ten million random ints, lazily
+ *  &#064;Random(size = 10_000_000) IntStream anyInts;
+ *
+ *  // create an int[] (or byte[], long[], double[]) containing 1000 random values, without boxing
+ *  &#064;Random(size = 1000) int[] anyInts;
+ *
+ *  // create a direct ByteBuffer containing 1MB of random bytes
+ *  &#064;Random(size = 1024 * 1024, direct = true) ByteBuffer anyPayload;
+ *
+ *  // create 1000 keys in [0, 100) skewed so that a few keys are very frequent
+ *  &#064;Random(size = 1000, distribution = Distribution.ZIPFIAN, range = 100) long[] anyKeys;
+ *
+ *  // create a List of MyDomainObject which retains roughly 50MB
+ *  &#064;Random(maxBytes = 50 * 1024 * 1024, type = MyDomainObject.class) List<MyDomainObject> any;
+ *
+ *  // generate a List of MyDomainObject once, then reload it from disk on every later request
+ *  &#064;Random(size = 100_000, type = MyDomainObject.class, seed = 42, cached = true)
+ *  List<MyDomainObject> any;
  * </pre>
  */
 @Retention(RetentionPolicy.RUNTIME)
@@ -67,4 +90,71 @@ public @interface Random {
    * @return the type of a randomly generated generic collection
    */
   Class<?> type() default Object.class;
+
+  /**
+   * When you want the same random value every time, for example to reproduce a failure, you can
+   * seed its generation. A seed of {@code 0} (the default) means <em>not seeded</em>. A seed is
+   * only honoured by an extension which uses the default randomization parameters, if you supply
+   * your own {@code EnhancedRandom} then seed that instead.
+   *
+   * @return the seed for this random value, defaults to not seeded
+   * @since 2.7.0
+   */
+  long seed() default 0;
+
+  /**
+   * When generating a {@link java.nio.ByteBuffer} you may want a direct (off heap) buffer rather
+   * than a heap buffer.
+   *
+   * @return true if a generated {@link java.nio.ByteBuffer} should be direct, defaults to false
+   * @since 2.7.0
+   */
+  boolean direct() default false;
+
+  /**
+   * When generating numeric values you may want them to follow a particular distribution, for
+   * example to mimic skewed production traffic. This applies to {@code int}, {@code long} and
+   * {@code double} values (boxed or not), to arrays of these and to {@code IntStream}, {@code
+   * LongStream} and {@code DoubleStream}.
+   *
+   * @return the distribution of the generated values, defaults to {@link Distribution#UNIFORM}
+   * @since 2.7.0
+   */
+  Distribution distribution() default Distribution.UNIFORM;
+
+  /**
+   * Shapes any {@link #distribution()} other than {@link Distribution#UNIFORM}, see {@link
+   * Distribution}.
+   *
+   * @return the range of the generated values, must be positive
+   * @since 2.7.0
+   */
+  long range() default 1000;
+
+  /**
+   * When generating a large object graph, for example to put a serializer under memory pressure,
+   * you may want to size it in bytes rather than in elements. A collection, stream, iterator or
+   * iterable is filled with elements until their estimated retained size would exceed this budget,
+   * in which case {@link #size()} is ignored. A primitive array, buffer or primitive stream gets as
+   * many values as fit within this budget. The estimate assumes a 64 bit JVM with compressed
+   * references so it is approximate. A budget of {@code 0} (the default) means <em>no
+   * budget</em>.
+   *
+   * @return the approximate maximum number of bytes in the generated value, defaults to no budget
+   * @since 2.7.0
+   */
+  long maxBytes() default 0;
+
+  /**
+   * When a large seeded value is used by many tests, or on every run, you may want to generate it
+   * once and then reload it from disk. A cached value is serialized to a file (under {@code
+   * target/random-fixtures} unless the {@code junit.extensions.random.cache} system property names
+   * another directory) keyed by this annotation's attributes and by the serialized form of the
+   * types involved, later requests for the same value deserialize a fresh copy from that file. A
+   * cached value must declare a {@link #seed()} and it must be {@link java.io.Serializable}.
+   *
+   * @return true if the value should be cached on disk, defaults to false
+   * @since 2.7.0
+   */
+  boolean cached() default false;
 }
@@ -18,17 +18,33 @@ package io.github.glytching.junit.extension.random;
 
 import io.github.benas.randombeans.EnhancedRandomBuilder;
 import io.github.benas.randombeans.api.EnhancedRandom;
+import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.extension.*;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.OptionalLong;
 import java.util.Set;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.*;
 
+import static io.github.glytching.junit.extension.util.ExtensionUtil.getStore;
 import static java.nio.charset.Charset.forName;
+import static org.junit.jupiter.api.TestInstance.Lifecycle.PER_METHOD;
+import static org.junit.platform.commons.support.AnnotationSupport.findAnnotation;
 import static org.junit.platform.commons.support.AnnotationSupport.isAnnotated;
 
 /**
@@ -114,46 +130,110 @@ import static org.junit.platform.commons.support.AnnotationSupport.isAnnotated;
  * }
  * </pre>
  *
+ * <p>Random generation is seeded: each run chooses a base seed at random, unless one is given via
+ * the {@link #SEED_PROPERTY} system property, and each test derives its own seed from the base
+ * seed and from its unique id. So, a test gets the same random values on every run with the same
+ * base seed regardless of what other tests run alongside it. When a test fails the base seed is
+ * published as a report entry so the failure can be reproduced by setting {@link #SEED_PROPERTY}
+ * to that seed. A single value can also be seeded with {@link Random#seed()}.
+ *
+ * <p>A test annotated with {@link RandomTest} is run many times, each time with fresh random
+ * parameters, and numeric values can be drawn from a non uniform {@link Distribution}.
+ *
  * @see <a href="https://github.com/benas/random-beans">Random Beans</a>
  * @since 1.0.0
  */
-public class RandomBeansExtension implements TestInstancePostProcessor, ParameterResolver {
+public class RandomBeansExtension
+    implements TestInstancePostProcessor,
+        BeforeEachCallback,
+        ParameterResolver,
+        AfterTestExecutionCallback,
+        TestTemplateInvocationContextProvider {
 
-  private final EnhancedRandom random;
+  /**
+   * The system property which overrides the base seed chosen for a run, this is also the key of the
+   * report entry which is published when a test fails.
+   *
+   * @since 2.7.0
+   */
+  public static final String SEED_PROPERTY = "junit.extensions.random.seed";
 
   /**
-   * Create the extension with a default {@link EnhancedRandom}.
+   * The system property which names the directory in which {@link Random#cached()} values are
+   * stored, defaults to {@code target/random-fixtures}.
    *
-   * @see <a href="https://github.com/benas/random-beans/wiki/Randomization-parameters">Enhanced
-   *     Random Configuration Parameters</a>
+   * @since 2.7.0
    */
-  public RandomBeansExtension() {
-    this(EnhancedRandomBuilder.aNewEnhancedRandomBuilder()
-            // maximum number of instances of a given type, above this number requests will start to
-            // reuse
-            // previously generated instances
-            .objectPoolSize(10)
+  public static final String CACHE_PROPERTY = "junit.extensions.random.cache";
 
-            // how deep should we go when randomising an object graph?
-            .randomizationDepth(5)
+  private static final String SEEDED_RANDOM_KEY = "seededRandom";
+  private static final String TRIES_SEED_KEY = "triesSeed";
+  private static final String RUN_SEED_KEY = "runSeed";
 
-            // the charset used for all String and Character values
-            .charset(forName("UTF-8"))
+  // the number of default builders prepared, each of which is built at a cost of milliseconds,
+  // visible for testing
+  private static final AtomicLong DEFAULT_BUILDERS = new AtomicLong();
 
-            // min, max bounds for the generated string length
-            .stringLengthRange(5, 50)
+  /**
+   * The fields annotated with {@link Random} in each test class, including those declared by its
+   * superclasses. A test class is introspected once per JVM rather than once per test instance, no
+   * matter how many extension instances are involved.
+   */
+  private static final ClassValue<List<RandomField>> RANDOM_FIELDS =
+      new ClassValue<List<RandomField>>() {
+        @Override
+        protected List<RandomField> computeValue(Class<?> type) {
+          List<RandomField> fields = new ArrayList<>();
+          // a superclass's fields are populated before its subclass's fields
+          if (type.getSuperclass() != null && type.getSuperclass() != Object.class) {
+            fields.addAll(RANDOM_FIELDS.get(type.getSuperclass()));
+          }
+          for (Field field : type.getDeclaredFields()) {
+            if (isAnnotated(field, Random.class)) {
+              fields.add(new RandomField(field));
+            }
+          }
+          return Collections.unmodifiableList(fields);
+        }
+      };
 
-            // min, max bounds for the generated collections size
-            .collectionSizeRange(1, 10)
+  /**
+   * Does each test class enclose a {@link Nested} test class? An instance of such a class may be
+   * the enclosing instance of a nested test, which the nested test's context cannot reach, so its
+   * fields cannot be deferred to {@link #beforeEach(ExtensionContext)}.
+   */
+  private static final ClassValue<Boolean> ENCLOSES_NESTED =
+      new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+          return Arrays.stream(type.getDeclaredClasses())
+              .anyMatch(declared -> isAnnotated(declared, Nested.class));
+        }
+      };
+
+  private final RandomSource random;
+
+  /** Pre-generated random objects, this is null unless pooling was requested. */
+  private final RandomObjectPool pool;
 
-            // if a random values is declared as an abstract or interface type then the classpath
-            // will be scanned
-            // for a concrete type of that abstract or interface type
-            .scanClasspathForConcreteTypes(true)
+  /**
+   * Seeds can only be honoured when the extension uses the default randomization parameters since
+   * a seeded {@link EnhancedRandom} has to be built from those parameters.
+   */
+  private final boolean seedable;
 
-            // do not override any values which are already initialised in the target type
-            .overrideDefaultInitialization(false)
-            .build());
+  /**
+   * Create the extension with a default {@link EnhancedRandom}. The default {@link EnhancedRandom}
+   * is built once per thread and then shared by every extension instance in the JVM since building
+   * it (in particular, preparing its randomizer registry) costs far more than using it. Since each
+   * thread has its own instance this extension can be used by tests running in parallel without
+   * any contention.
+   *
+   * @see <a href="https://github.com/benas/random-beans/wiki/Randomization-parameters">Enhanced
+   *     Random Configuration Parameters</a>
+   */
+  public RandomBeansExtension() {
+    this(DefaultRandom.SOURCE, null, true);
   }
 
   /**
@@ -161,12 +241,113 @@ public class RandomBeansExtension implements TestInstancePostProcessor, Paramete
    * the caller wants to override the default 'randomizer' configuration. This constructor will be called by using the
    * {@code RegisterExtension} annotation.
    *
+   * <p>The given {@link EnhancedRandom} is not safe for concurrent use so, if tests run in
+   * parallel, they take turns to use it. Use {@link #RandomBeansExtension(Supplier)} to avoid this.
+   *
    * @param enhancedRandom
    * @since 2.5.0
    */
   public RandomBeansExtension(EnhancedRandom enhancedRandom) {
-    this.random = enhancedRandom;
+    this(RandomSource.shared(enhancedRandom), null, false);
+  }
+
+  /**
+   * Create the extension with an {@link EnhancedRandom} per thread, each created by the given
+   * {@code enhancedRandomFactory}. Use this, rather than {@link
+   * #RandomBeansExtension(EnhancedRandom)}, to override the default 'randomizer' configuration for
+   * tests which run in parallel since threads then share no generator. This constructor will be
+   * called by using the {@code RegisterExtension} annotation.
+   *
+   * <p>Usage example:
+   *
+   * <pre>
+   *  &#064;RegisterExtension
+   *  static RandomBeansExtension randomBeansExtension =
+   *      new RandomBeansExtension(() -> EnhancedRandomBuilder.aNewEnhancedRandomBuilder()
+   *          .stringLengthRange(1, 5)
+   *          .build());
+   * </pre>
+   *
+   * @param enhancedRandomFactory creates an {@link EnhancedRandom}, this is invoked once for each
+   *     thread which uses the extension
+   * @since 2.7.0
+   */
+  public RandomBeansExtension(Supplier<EnhancedRandom> enhancedRandomFactory) {
+    this(RandomSource.perThread(enhancedRandomFactory), null, false);
+  }
+
+  /**
+   * Create the extension with the given {@link EnhancedRandom} and with a pool of up to {@code
+   * poolSize} pre-generated instances for each combination of type and excludes requested by a
+   * test. Instances are generated by a background thread and handed out to tests on request so,
+   * for object graphs which are expensive to generate, this moves the cost of generation off the
+   * test thread. Each pooled instance is handed out once only. This constructor will be called by
+   * using the {@code RegisterExtension} annotation.
+   *
+   * <p>Usage example:
+   *
+   * <pre>
+   *  &#064;RegisterExtension
+   *  static RandomBeansExtension randomBeansExtension =
+   *      new RandomBeansExtension(EnhancedRandomBuilder.aNewEnhancedRandom(), 50);
+   * </pre>
+   *
+   * @param enhancedRandom the {@link EnhancedRandom} used to generate instances
+   * @param poolSize the maximum number of pre-generated instances held for each type and excludes
+   * @since 2.7.0
+   */
+  public RandomBeansExtension(EnhancedRandom enhancedRandom, int poolSize) {
+    this(RandomSource.shared(enhancedRandom), poolSize);
+  }
+
+  private RandomBeansExtension(RandomSource random, int poolSize) {
+    this(random, new RandomObjectPool(random, poolSize), false);
+  }
+
+  private RandomBeansExtension(RandomSource random, RandomObjectPool pool, boolean seedable) {
+    this.random = random;
+    this.pool = pool;
+    this.seedable = seedable;
+  }
 
+  /** @return the number of builders prepared by {@link #defaultRandomBuilder()} */
+  static long defaultBuilders() {
+    return DEFAULT_BUILDERS.get();
+  }
+
+  /**
+   * Prepares a builder for the default {@link EnhancedRandom}.
+   *
+   * @see <a href="https://github.com/benas/random-beans/wiki/Randomization-parameters">Enhanced
+   *     Random Configuration Parameters</a>
+   */
+  private static EnhancedRandomBuilder defaultRandomBuilder() {
+    DEFAULT_BUILDERS.incrementAndGet();
+    return EnhancedRandomBuilder.aNewEnhancedRandomBuilder()
+        // maximum number of instances of a given type, above this number requests will start to
+        // reuse
+        // previously generated instances
+        .objectPoolSize(10)
+
+        // how deep should we go when randomising an object graph?
+        .randomizationDepth(5)
+
+        // the charset used for all String and Character values
+        .charset(forName("UTF-8"))
+
+        // min, max bounds for the generated string length
+        .stringLengthRange(5, 50)
+
+        // min, max bounds for the generated collections size
+        .collectionSizeRange(1, 10)
+
+        // if a random values is declared as an abstract or interface type then the classpath
+        // will be scanned
+        // for a concrete type of that abstract or interface type
+        .scanClasspathForConcreteTypes(true)
+
+        // do not override any values which are already initialised in the target type
+        .overrideDefaultInitialization(false);
   }
 
   /**
@@ -202,12 +383,19 @@ public class RandomBeansExtension implements TestInstancePostProcessor, Paramete
       throws ParameterResolutionException {
     return resolve(
         parameterContext.getParameter().getType(),
-        parameterContext.getParameter().getAnnotation(Random.class));
+        parameterContext.getParameter().getAnnotation(Random.class),
+        () -> parameterGenerator(parameterContext, extensionContext));
   }
 
   /**
-   * Inject random values into any fields which are annotated with {@link Random}. 
-   * This method doesn't populate static fields if they have values.
+   * Inject random values into any fields (including inherited fields) which are annotated with
+   * {@link Random}. This method doesn't populate static fields if they have values.
+   *
+   * <p>The extension context passed here is the test class's context, not the context of the test
+   * for which the instance is created, so a seeded run defers an instance field to {@link
+   * #beforeEach(ExtensionContext)} where it can be seeded from the test's own unique id. Static
+   * fields, and the fields of an instance which is shared by several tests, are seeded from the
+   * test class's unique id.
    *
    * @param testInstance the instance to post-process
    * @param extensionContext the current extension context
@@ -216,42 +404,497 @@ public class RandomBeansExtension implements TestInstancePostProcessor, Paramete
   @Override
   public void postProcessTestInstance(Object testInstance, ExtensionContext extensionContext)
       throws Exception {
-    for (Field field : testInstance.getClass().getDeclaredFields()) {
-      if (isAnnotated(field, Random.class)) {
-        Random annotation = field.getAnnotation(Random.class);
-        Object randomObject = resolve(field.getType(), annotation);
-        
-        field.setAccessible(true);
-        if (!Modifier.isStatic(field.getModifiers()) || field.get(testInstance) == null) {
-          field.set(testInstance, randomObject);
+    boolean deferred = isDeferred(testInstance, extensionContext);
+    RandomSource[] generator = new RandomSource[1];
+    populate(
+        testInstance,
+        field -> !deferred || field.isStatic,
+        // one generator for all of this instance's fields, created only if required
+        () ->
+            generator[0] != null
+                ? generator[0]
+                : (generator[0] = seeded(extensionContext, extensionContext.getUniqueId())));
+  }
+
+  /**
+   * Inject random values into the instance fields which {@link
+   * #postProcessTestInstance(Object, ExtensionContext)} deferred, using the same generator as the
+   * test's parameters.
+   *
+   * @param extensionContext the <em>context</em> in which the current test is being executed
+   * @throws Exception
+   */
+  @Override
+  public void beforeEach(ExtensionContext extensionContext) throws Exception {
+    Object testInstance = extensionContext.getRequiredTestInstance();
+    if (isDeferred(testInstance, extensionContext)) {
+      populate(testInstance, field -> !field.isStatic, () -> testGenerator(extensionContext));
+    }
+  }
+
+  /**
+   * Instance fields are deferred to {@link #beforeEach(ExtensionContext)} if the run is seedable
+   * and each test gets its own test instance.
+   */
+  private boolean isDeferred(Object testInstance, ExtensionContext extensionContext) {
+    return seedable
+        && extensionContext.getTestInstanceLifecycle().orElse(PER_METHOD) == PER_METHOD
+        && !ENCLOSES_NESTED.get(testInstance.getClass());
+  }
+
+  private void populate(
+      Object testInstance, Predicate<RandomField> selected, Supplier<RandomSource> generator)
+      throws Exception {
+    for (RandomField field : RANDOM_FIELDS.get(testInstance.getClass())) {
+      if (!selected.test(field)) {
+        continue;
+      }
+      try {
+        if (!field.isStatic || field.getter.invokeExact(testInstance) == null) {
+          Object randomObject = resolve(field.type, field.annotation, generator);
+          field.setter.invokeExact(testInstance, randomObject);
         }
+      } catch (Exception | Error ex) {
+        throw ex;
+      } catch (Throwable t) {
+        // a field accessor throws nothing else
+        throw new IllegalStateException(t);
       }
     }
   }
 
+  /**
+   * If the test failed then publish the base seed so that the failure can be reproduced by
+   * rerunning with the same seed.
+   *
+   * @param extensionContext the <em>context</em> in which the current test or container is being
+   *     executed
+   * @throws Exception
+   */
+  @Override
+  public void afterTestExecution(ExtensionContext extensionContext) throws Exception {
+    if (seedable && extensionContext.getExecutionException().isPresent()) {
+      extensionContext.publishReportEntry(
+          SEED_PROPERTY, Long.toString(baseSeed(extensionContext)));
+    }
+  }
+
+  /**
+   * Does this extension provide the tries for the test template described by the given {@code
+   * extensionContext}?
+   *
+   * @param extensionContext the extension context for the test template method
+   * @return true if the test template is annotated with {@link RandomTest}, false otherwise
+   */
+  @Override
+  public boolean supportsTestTemplate(ExtensionContext extensionContext) {
+    return extensionContext
+        .getTestMethod()
+        .map(method -> isAnnotated(method, RandomTest.class))
+        .orElse(false);
+  }
+
+  /**
+   * Provides one invocation per {@link RandomTest#tries()}. If this extension is seedable then the
+   * base seed for the tries is chosen here, each try then derives its own seed from the base seed
+   * and from its unique id, exactly as it would for a seeded run.
+   *
+   * @param extensionContext the extension context for the test template method
+   * @return a stream of {@link RandomTest#tries()} invocation contexts
+   */
+  @Override
+  public Stream<TestTemplateInvocationContext> provideTestTemplateInvocationContexts(
+      ExtensionContext extensionContext) {
+    RandomTest randomTest =
+        findAnnotation(extensionContext.getRequiredTestMethod(), RandomTest.class)
+            .orElseThrow(IllegalStateException::new);
+    int tries = randomTest.tries();
+    if (tries < 1) {
+      throw new ExtensionConfigurationException(
+          String.format("A random test must have at least one try: %s", tries));
+    }
+
+    if (seedable) {
+      long seed = randomTest.seed() != 0 ? randomTest.seed() : baseSeed(extensionContext);
+      getStore(extensionContext, this.getClass()).put(TRIES_SEED_KEY, seed);
+    }
+    return IntStream.rangeClosed(1, tries).mapToObj(index -> new RandomTry(index, tries));
+  }
+
   /**
    * Maps the 'random requirements' expressed by the given {@code annotation} to invocations on
-   * {@link #random}.
+   * {@link #random} (or on a seeded equivalent).
+   *
+   * @param targetType the type to be provided
+   * @param annotation an instance of {@link Random} which describes how the user wishes to
+   *     configure the 'random generation'
+   * @param contextual supplies the generator for the context in which the value is required
+   * @return a randomly generated instance of {@code targetType}
+   */
+  private Object resolve(
+      Class<?> targetType, Random annotation, Supplier<RandomSource> contextual) {
+    if (!annotation.cached()) {
+      return generate(targetType, annotation, contextual);
+    }
+    if (!seedable || annotation.seed() == 0) {
+      throw new ExtensionConfigurationException(
+          "A cached random value must declare a seed and requires the default randomization"
+              + " parameters");
+    }
+    return FixtureCache.configured()
+        .get(
+            cacheKey(targetType, annotation),
+            () -> generate(targetType, annotation, contextual));
+  }
+
+  /**
+   * A cached value is identified by everything which determines its contents: the declaration of
+   * the value, the version of random-beans and the shape of every class which is reachable from the
+   * value's types, see {@link TypeFingerprints}.
+   */
+  private String cacheKey(Class<?> targetType, Random annotation) {
+    return String.join(
+        "|",
+        targetType.getName(),
+        annotation.type().getName(),
+        TypeFingerprints.fingerprint(targetType, annotation.type()),
+        TypeFingerprints.randomBeansVersion(),
+        Arrays.toString(annotation.excludes()),
+        Integer.toString(annotation.size()),
+        Long.toString(annotation.seed()),
+        Boolean.toString(annotation.direct()),
+        annotation.distribution().name(),
+        Long.toString(annotation.range()),
+        Long.toString(annotation.maxBytes()));
+  }
+
+  /**
+   * Generates the value described by the given {@code annotation}.
    *
    * @param targetType the type to be provided
    * @param annotation an instance of {@link Random} which describes how the user wishes to
    *     configure the 'random generation'
+   * @param contextual supplies the generator for the context in which the value is required
    * @return a randomly generated instance of {@code targetType}
    */
-  private Object resolve(Class<?> targetType, Random annotation) {
-    if (targetType.isAssignableFrom(List.class) || targetType.isAssignableFrom(Collection.class)) {
-      return random
-          .objects(annotation.type(), annotation.size(), annotation.excludes())
-          .collect(Collectors.toList());
+  private Object generate(
+      Class<?> targetType, Random annotation, Supplier<RandomSource> contextual) {
+    RandomSource generator = generatorFor(annotation, contextual);
+    int size = sizeOf(targetType, annotation);
+    if (annotation.distribution() != Distribution.UNIFORM) {
+      return distributed(targetType, annotation, generator, size);
+    } else if (targetType == byte[].class) {
+      return bulkRandom(generator).bytes(size);
+    } else if (targetType == int[].class) {
+      return bulkRandom(generator).ints(size);
+    } else if (targetType == long[].class) {
+      return bulkRandom(generator).longs(size);
+    } else if (targetType == double[].class) {
+      return bulkRandom(generator).doubles(size);
+    } else if (targetType == ByteBuffer.class) {
+      return bulkRandom(generator).buffer(size, annotation.direct());
+    } else if (targetType == IntStream.class) {
+      return generator.primitives().ints(size);
+    } else if (targetType == LongStream.class) {
+      return generator.primitives().longs(size);
+    } else if (targetType == DoubleStream.class) {
+      return generator.primitives().doubles(size);
+    } else if (targetType == Iterator.class) {
+      return objects(generator, annotation).iterator();
+    } else if (targetType == Iterable.class) {
+      return iterable(generator, annotation);
+    } else if (targetType.isAssignableFrom(List.class)
+        || targetType.isAssignableFrom(Collection.class)) {
+      return objects(generator, annotation).collect(Collectors.toList());
     } else if (targetType.isAssignableFrom(Set.class)) {
-      return random
-          .objects(annotation.type(), annotation.size(), annotation.excludes())
-          .collect(Collectors.toSet());
+      return objects(generator, annotation).collect(Collectors.toSet());
     } else if (targetType.isAssignableFrom(Stream.class)) {
-      return random.objects(annotation.type(), annotation.size(), annotation.excludes());
+      return objects(generator, annotation);
+    } else if (annotation.maxBytes() > 0) {
+      throw new ExtensionConfigurationException(
+          String.format("A byte budget is not supported for type: %s", targetType.getName()));
+    } else {
+      return pool != null
+          ? pool.next(targetType, annotation.excludes())
+          : generator.nextObject(targetType, annotation.excludes());
+    }
+  }
+
+  /**
+   * Draws numeric values from the {@link Random#distribution()} declared by the given {@code
+   * annotation}.
+   */
+  private Object distributed(
+      Class<?> targetType, Random annotation, RandomSource generator, int size) {
+    DistributionSampler sampler =
+        DistributionSampler.of(annotation.distribution(), annotation.range());
+    java.util.Random random = generator.primitives();
+    if (targetType == int.class || targetType == Integer.class) {
+      return sampler.nextInt(random);
+    } else if (targetType == long.class || targetType == Long.class) {
+      return sampler.nextLong(random);
+    } else if (targetType == double.class || targetType == Double.class) {
+      return sampler.nextDouble(random);
+    } else if (targetType == int[].class) {
+      return IntStream.generate(() -> sampler.nextInt(random)).limit(size).toArray();
+    } else if (targetType == long[].class) {
+      return LongStream.generate(() -> sampler.nextLong(random)).limit(size).toArray();
+    } else if (targetType == double[].class) {
+      return DoubleStream.generate(() -> sampler.nextDouble(random)).limit(size).toArray();
+    } else if (targetType == IntStream.class) {
+      return IntStream.generate(() -> sampler.nextInt(random)).limit(size);
+    } else if (targetType == LongStream.class) {
+      return LongStream.generate(() -> sampler.nextLong(random)).limit(size);
+    } else if (targetType == DoubleStream.class) {
+      return DoubleStream.generate(() -> sampler.nextDouble(random)).limit(size);
+    }
+    throw new ExtensionConfigurationException(
+        String.format(
+            "The %s distribution is not supported for type: %s",
+            annotation.distribution(), targetType.getName()));
+  }
+
+  /**
+   * Primitive arrays and buffers are filled by a fast bulk generator, seeded from the given {@code
+   * generator} so that a seeded test still gets reproducible contents.
+   */
+  private BulkRandom bulkRandom(RandomSource generator) {
+    return new BulkRandom(generator.primitives().nextLong());
+  }
+
+  /**
+   * If the given {@code annotation} declares a {@link Random#maxBytes()} budget then the number of
+   * values in a primitive array, buffer or stream is the number of values which fit within the
+   * budget, otherwise it is {@link Random#size()}.
+   */
+  private int sizeOf(Class<?> targetType, Random annotation) {
+    long maxBytes = annotation.maxBytes();
+    if (maxBytes <= 0) {
+      return annotation.size();
+    }
+    int width;
+    if (targetType == byte[].class || targetType == ByteBuffer.class) {
+      width = Byte.BYTES;
+    } else if (targetType == int[].class || targetType == IntStream.class) {
+      width = Integer.BYTES;
+    } else if (targetType == long[].class
+        || targetType == double[].class
+        || targetType == LongStream.class
+        || targetType == DoubleStream.class) {
+      width = Long.BYTES;
     } else {
-      return random.nextObject(targetType, annotation.excludes());
+      // the size of a collection of objects is governed by the budget, see objects()
+      return annotation.size();
+    }
+    return (int) Math.min(Integer.MAX_VALUE - 8, maxBytes / width);
+  }
+
+  /**
+   * @return a lazy stream of objects, limited by the given {@code annotation}'s {@link
+   *     Random#maxBytes()} if it declares one and by its {@link Random#size()} otherwise
+   */
+  private Stream<Object> objects(RandomSource generator, Random annotation) {
+    boolean budgeted = annotation.maxBytes() > 0;
+    int size = budgeted ? Integer.MAX_VALUE : annotation.size();
+    Stream<Object> objects =
+        pool != null
+            ? pool.objects(annotation.type(), size, annotation.excludes())
+            : generator.objects(annotation.type(), size, annotation.excludes());
+    return budgeted ? RetainedSize.within(objects, annotation.maxBytes()) : objects;
+  }
+
+  /**
+   * Each iteration of a lazy {@code Iterable} generates its elements afresh, from a generator
+   * seeded with a seed which is chosen once, when the {@code Iterable} is created, so that every
+   * iteration yields the same elements. An extension which was given its own {@link
+   * EnhancedRandom} cannot be reseeded so each iteration of its {@code Iterable}s yields new
+   * elements.
+   */
+  private Iterable<Object> iterable(RandomSource generator, Random annotation) {
+    if (!seedable) {
+      return () -> objects(generator, annotation).iterator();
+    }
+    long seed = generator.primitives().nextLong();
+    return () -> objects(seededWith(seed), annotation).iterator();
+  }
+
+  /**
+   * Find the generator for a random value:
+   *
+   * <ul>
+   *   <li>A value with its own seed gets a generator seeded with that seed
+   *   <li>Otherwise, if this extension is seedable, the generator for the context in which the
+   *       value is required, see {@link #testGenerator(ExtensionContext)}
+   *   <li>Otherwise (i.e. the extension was given its own {@link EnhancedRandom}), the extension's
+   *       {@link #random} is used
+   * </ul>
+   */
+  private RandomSource generatorFor(Random annotation, Supplier<RandomSource> contextual) {
+    if (!seedable) {
+      return random;
+    }
+    if (annotation.seed() != 0) {
+      return seededWith(annotation.seed());
+    }
+    return contextual.get();
+  }
+
+  /**
+   * A test (or a try of a {@link RandomTest}) gets one generator for its parameters and for its
+   * deferred fields, seeded from the base seed and from the test's unique id, so the values it
+   * receives do not depend on which other tests run or in what order.
+   */
+  private RandomSource testGenerator(ExtensionContext extensionContext) {
+    if (!seedable) {
+      return random;
+    }
+    return getStore(extensionContext, this.getClass())
+        .getOrComputeIfAbsent(
+            SEEDED_RANDOM_KEY,
+            key -> seeded(extensionContext, extensionContext.getUniqueId()),
+            RandomSource.class);
+  }
+
+  /**
+   * A parameter of a test (or of a lifecycle method which runs within the test's context) uses the
+   * test's generator. A parameter which is resolved in a test class's context (e.g. a constructor
+   * parameter) is not specific to any one test so it gets its own generator, seeded from the
+   * class's unique id and from the parameter's position.
+   */
+  private RandomSource parameterGenerator(
+      ParameterContext parameterContext, ExtensionContext extensionContext) {
+    if (!seedable || extensionContext.getTestMethod().isPresent()) {
+      return testGenerator(extensionContext);
+    }
+    return seeded(
+        extensionContext,
+        extensionContext.getUniqueId()
+            + "/"
+            + parameterContext.getDeclaringExecutable()
+            + "#"
+            + parameterContext.getIndex());
+  }
+
+  /**
+   * @return a new generator seeded from the base seed and the given {@code id}, or the extension's
+   *     {@link #random} if this extension is not seedable
+   */
+  private RandomSource seeded(ExtensionContext extensionContext, String id) {
+    if (!seedable) {
+      return random;
+    }
+    return seededWith(RandomSeeds.seedFor(baseSeed(extensionContext), id));
+  }
+
+  /**
+   * @return a new generator, with the default configuration, seeded with the given {@code seed};
+   *     the generator reseeds the calling thread's default {@link EnhancedRandom} rather than
+   *     building its own
+   */
+  private static RandomSource seededWith(long seed) {
+    return RandomSource.seeded(DefaultRandom.RESEEDABLE, seed).withGeneratedRandomizers();
+  }
+
+  /**
+   * @return the seed chosen for the tries of the {@link RandomTest} to which the given {@code
+   *     extensionContext} belongs, if any, otherwise the seed configured via {@link
+   *     #SEED_PROPERTY}, if any, otherwise a seed chosen at random once per run
+   */
+  private long baseSeed(ExtensionContext extensionContext) {
+    Long triesSeed =
+        extensionContext
+            .getParent()
+            .map(parent -> getStore(parent, this.getClass()).get(TRIES_SEED_KEY, Long.class))
+            .orElse(null);
+    if (triesSeed != null) {
+      return triesSeed;
+    }
+    OptionalLong configured = RandomSeeds.baseSeed();
+    if (configured.isPresent()) {
+      return configured.getAsLong();
+    }
+    // every test in the run derives its seed from this one, so it alone reproduces any failure
+    return getStore(extensionContext.getRoot(), this.getClass())
+        .getOrComputeIfAbsent(
+            RUN_SEED_KEY, key -> ThreadLocalRandom.current().nextLong(), Long.class);
+  }
+
+  /** A single try of a {@link RandomTest}. */
+  private static final class RandomTry implements TestTemplateInvocationContext {
+    private final int index;
+    private final int tries;
+
+    private RandomTry(int index, int tries) {
+      this.index = index;
+      this.tries = tries;
+    }
+
+    @Override
+    public String getDisplayName(int invocationIndex) {
+      return String.format("try %s of %s", index, tries);
+    }
+  }
+
+  /**
+   * A field annotated with {@link Random} along with accessors for it. The accessors are method
+   * handles which have been adapted to a common {@code (Object)Object} getter and {@code
+   * (Object,Object)void} setter shape so that they can be invoked exactly (i.e. without any
+   * per-invocation type adaptation) for static and instance fields alike.
+   */
+  private static final class RandomField {
+    private static final MethodType GETTER = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SETTER =
+        MethodType.methodType(void.class, Object.class, Object.class);
+
+    private final Class<?> type;
+    private final Random annotation;
+    private final boolean isStatic;
+    private final MethodHandle getter;
+    private final MethodHandle setter;
+
+    private RandomField(Field field) {
+      this.type = field.getType();
+      this.annotation = field.getAnnotation(Random.class);
+      this.isStatic = Modifier.isStatic(field.getModifiers());
+
+      field.setAccessible(true);
+      this.getter = accessor(field, false).asType(GETTER);
+      this.setter = accessor(field, true).asType(SETTER);
+    }
+
+    private MethodHandle accessor(Field field, boolean isSetter) {
+      MethodHandles.Lookup lookup = MethodHandles.lookup();
+      try {
+        MethodHandle accessor =
+            isSetter ? lookup.unreflectSetter(field) : lookup.unreflectGetter(field);
+        // a static field's accessors ignore the test instance
+        return isStatic ? MethodHandles.dropArguments(accessor, 0, Object.class) : accessor;
+      } catch (IllegalAccessException ex) {
+        // a static final field cannot be written via a method handle, the reflective alternative
+        // behaves (and fails) exactly as before
+        try {
+          return lookup
+              .findVirtual(Field.class, isSetter ? "set" : "get", isSetter ? SETTER : GETTER)
+              .bindTo(field);
+        } catch (ReflectiveOperationException e) {
+          throw new ExtensionConfigurationException(
+              String.format("Cannot access field [%s]", field), e);
+        }
+      }
     }
   }
 
+  /**
+   * Holds the default {@link RandomSource} and, for seeded generation, the {@link
+   * ReseedableRandom} it uses. Each thread builds one {@link EnhancedRandom} which serves every
+   * default and every seeded generator on that thread.
+   */
+  private static final class DefaultRandom {
+    private static final ThreadLocal<ReseedableRandom> RESEEDABLE =
+        ThreadLocal.withInitial(
+            () -> new ReseedableRandom(RandomBeansExtension::defaultRandomBuilder));
+
+    private static final RandomSource SOURCE =
+        RandomSource.perThread(() -> RESEEDABLE.get().current()).withGeneratedRandomizers();
+  }
 }
@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.glytching.junit.extension.random;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * Bounded pools of pre-generated random objects, one pool per {@code (type, excludes)}. Taking an
+ * object from a pool dequeues an instance which was generated ahead of time and asks a background
+ * thread to top the pool back up so, for types which are expensive to generate, the cost of
+ * generation is moved off the test thread. An instance is never handed out more than once.
+ *
+ * <p>If a pool is empty (e.g. on the first request for a type) then the object is generated on the
+ * calling thread, so taking from a pool never blocks on the background thread.
+ */
+final class RandomObjectPool {
+
+  // a single refill thread is shared by every pool, it is a daemon so it never holds up JVM exit
+  private static final ExecutorService REFILLER =
+      Executors.newSingleThreadExecutor(
+          runnable -> {
+            Thread thread = new Thread(runnable, "random-beans-refill");
+            thread.setDaemon(true);
+            return thread;
+          });
+
+  private final RandomSource random;
+  private final int capacity;
+  private final ConcurrentMap<List<Object>, Pool> pools = new ConcurrentHashMap<>();
+
+  RandomObjectPool(RandomSource random, int capacity) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException(
+          String.format("Cannot create a pool of size: %s, size must be positive", capacity));
+    }
+    this.random = random;
+    this.capacity = capacity;
+  }
+
+  /**
+   * @param type the type of object required
+   * @param excludes the fields to be excluded from the generated object
+   * @return a random instance of the given {@code type}
+   */
+  Object next(Class<?> type, String... excludes) {
+    return poolFor(type, excludes).take();
+  }
+
+  /**
+   * @param type the type of object required
+   * @param size the number of objects required
+   * @param excludes the fields to be excluded from the generated objects
+   * @return a stream of {@code size} random instances of the given {@code type}, each instance is
+   *     taken from the pool when the stream's consumer asks for it
+   */
+  Stream<Object> objects(Class<?> type, int size, String... excludes) {
+    Pool pool = poolFor(type, excludes);
+    return Stream.generate(pool::take).limit(size);
+  }
+
+  /**
+   * @return the number of pre-generated instances of the given {@code type} which are currently
+   *     available, this is exposed for testing
+   */
+  int available(Class<?> type, String... excludes) {
+    return poolFor(type, excludes).instances.size();
+  }
+
+  private Pool poolFor(Class<?> type, String[] excludes) {
+    return pools.computeIfAbsent(
+        Arrays.asList(type, Arrays.asList(excludes)), key -> new Pool(type, excludes));
+  }
+
+  private final class Pool {
+    private final Class<?> type;
+    private final String[] excludes;
+    private final BlockingQueue<Object> instances = new ArrayBlockingQueue<>(capacity);
+    private final AtomicBoolean refilling = new AtomicBoolean();
+
+    private Pool(Class<?> type, String[] excludes) {
+      this.type = type;
+      this.excludes = excludes.clone();
+    }
+
+    private Object take() {
+      Object instance = instances.poll();
+      if (instance == null) {
+        instance = random.nextObject(type, excludes);
+      }
+      refill();
+      return instance;
+    }
+
+    private void refill() {
+      if (refilling.compareAndSet(false, true)) {
+        REFILLER.execute(
+            () -> {
+              try {
+                while (instances.remainingCapacity() > 0) {
+                  instances.offer(random.nextObject(type, excludes));
+                }
+              } catch (RuntimeException ex) {
+                // the same failure will surface on the calling thread when the pool runs dry
+              } finally {
+                refilling.set(false);
+              }
+            });
+      }
+    }
+  }
+}
@@ -0,0 +1,75 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.glytching.junit.extension.random;
+
+import org.junit.jupiter.api.extension.ExtensionConfigurationException;
+
+import java.util.OptionalLong;
+import java.util.SplittableRandom;
+
+import static io.github.glytching.junit.extension.random.RandomBeansExtension.SEED_PROPERTY;
+
+/**
+ * Derives reproducible seeds for random generation. Each run has a <em>base seed</em>, chosen at
+ * random unless the {@link RandomBeansExtension#SEED_PROPERTY} system property supplies one, and
+ * each test derives its own seed from that base seed and its unique id. Since a test's seed depends
+ * only on the base seed and on the test's identity (and not on the order in which tests run or on
+ * what other tests ran) a single failing test can be reproduced in isolation by rerunning it with
+ * the same base seed.
+ */
+final class RandomSeeds {
+
+  // this is a utility class - hide the public ctor
+  private RandomSeeds() {}
+
+  /**
+   * @return the base seed, if one has been configured via the {@link
+   *     RandomBeansExtension#SEED_PROPERTY} system property
+   * @throws ExtensionConfigurationException if the configured base seed is not a number
+   */
+  static OptionalLong baseSeed() {
+    String value = System.getProperty(SEED_PROPERTY);
+    if (value == null || value.trim().isEmpty()) {
+      return OptionalLong.empty();
+    }
+    try {
+      return OptionalLong.of(Long.parseLong(value.trim()));
+    } catch (NumberFormatException ex) {
+      throw new ExtensionConfigurationException(
+          String.format("The system property '%s' must be a number: %s", SEED_PROPERTY, value),
+          ex);
+    }
+  }
+
+  /**
+   * Derive a seed for the given {@code uniqueId} from the given {@code baseSeed}. The derived seeds
+   * of two different tests are statistically independent even though they share a base seed.
+   *
+   * @param baseSeed the base seed for this run
+   * @param uniqueId the unique id of the test (or test container) which requires a seed
+   * @return the seed for the given {@code uniqueId}
+   */
+  static long seedFor(long baseSeed, String uniqueId) {
+    // 64 bit FNV-1a, String.hashCode would give only 32 bits of the id
+    long hash = 0xcbf29ce484222325L;
+    for (int i = 0; i < uniqueId.length(); i++) {
+      hash ^= uniqueId.charAt(i);
+      hash *= 0x100000001b3L;
+    }
+    return new SplittableRandom(baseSeed ^ hash).nextLong();
+  }
+}
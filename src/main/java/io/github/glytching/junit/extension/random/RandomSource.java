@@ -0,0 +1,169 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.glytching.junit.extension.random;
+
+import io.github.benas.randombeans.api.EnhancedRandom;
+
+import java.util.SplittableRandom;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * A thread safe source of random objects. An {@link EnhancedRandom} is not safe for concurrent use
+ * (some of its internal caches are unsynchronised) so a source either:
+ *
+ * <ul>
+ *   <li>Confines an {@link EnhancedRandom} to each thread, see {@link #perThread(Supplier)}.
+ *       Threads share no mutable state so generation scales with the number of threads.
+ *   <li>Serialises access to a single {@link EnhancedRandom}, see {@link #shared(EnhancedRandom)}.
+ *       This is used where the caller has supplied a single instance which cannot be copied.
+ *   <li>Reseeds each thread's {@link EnhancedRandom} before each use, see {@link
+ *       #seeded(ThreadLocal, long)}. This is used for seeded generation where building an {@link
+ *       EnhancedRandom} for each seed would be too costly.
+ * </ul>
+ *
+ * <p>A source only uses {@link GeneratedRandomizer}s if it is built from the extension's own
+ * configuration, see {@link #withGeneratedRandomizers()}. A generated randomizer knows nothing of
+ * the custom randomizers, excludes, collection sizes etc which a caller may have registered with
+ * its own {@link EnhancedRandom} so a source built from a caller's {@link EnhancedRandom} always
+ * delegates to that {@link EnhancedRandom}.
+ */
+final class RandomSource {
+
+  private final Supplier<EnhancedRandom> random;
+  private final Supplier<java.util.Random> primitives;
+  private final boolean confined;
+  private final boolean generated;
+
+  private RandomSource(
+      Supplier<EnhancedRandom> random,
+      Supplier<java.util.Random> primitives,
+      boolean confined,
+      boolean generated) {
+    this.random = random;
+    this.primitives = primitives;
+    this.confined = confined;
+    this.generated = generated;
+  }
+
+  /**
+   * @param factory creates an {@link EnhancedRandom}, this is invoked once for each thread which
+   *     uses the source
+   * @return a source which gives each thread its own {@link EnhancedRandom}
+   */
+  static RandomSource perThread(Supplier<EnhancedRandom> factory) {
+    ThreadLocal<EnhancedRandom> random = ThreadLocal.withInitial(factory);
+    return new RandomSource(random::get, random::get, true, false);
+  }
+
+  /**
+   * @param random the {@link EnhancedRandom} to be shared
+   * @return a source which allows one thread at a time to use the given {@code random}
+   */
+  static RandomSource shared(EnhancedRandom random) {
+    return new RandomSource(() -> random, () -> random, false, false);
+  }
+
+  /**
+   * Each object is generated by the calling thread's {@link ReseedableRandom}, reseeded with the
+   * next in a sequence of seeds derived from the given {@code seed}. So a source created with the
+   * same {@code seed} generates the same objects, in the same order, whichever thread(s) use it and
+   * whatever else those threads have generated in the meantime.
+   *
+   * @param perThread the calling thread's {@link ReseedableRandom}
+   * @param seed the seed from which this source's seeds are derived
+   * @return a seeded source which reuses each thread's {@link EnhancedRandom}
+   */
+  static RandomSource seeded(ThreadLocal<ReseedableRandom> perThread, long seed) {
+    SplittableRandom seeds = new SplittableRandom(seed);
+    java.util.Random primitives = new java.util.Random(seed);
+    return new RandomSource(
+        () -> perThread.get().reseed(nextSeed(seeds)), () -> primitives, true, false);
+  }
+
+  private static long nextSeed(SplittableRandom seeds) {
+    synchronized (seeds) {
+      return seeds.nextLong();
+    }
+  }
+
+  /**
+   * @return a source which uses the same {@link EnhancedRandom}(s) as this source but which
+   *     prefers a {@link GeneratedRandomizer}, where there is one, over random-beans' reflective
+   *     population. This is only appropriate where the {@link EnhancedRandom} has the extension's
+   *     default configuration.
+   */
+  RandomSource withGeneratedRandomizers() {
+    return new RandomSource(random, primitives, confined, true);
+  }
+
+  /**
+   * @param type the type of object required
+   * @param excludes the fields to be excluded from the generated object
+   * @return a random instance of the given {@code type}
+   */
+  Object nextObject(Class<?> type, String... excludes) {
+    // a generated randomizer cannot honour excludes
+    GeneratedRandomizer<?> randomizer =
+        generated && !hasExcludes(excludes) ? GeneratedRandomizers.find(type) : null;
+    EnhancedRandom enhancedRandom = random.get();
+    if (confined) {
+      return nextObject(enhancedRandom, randomizer, type, excludes);
+    }
+    synchronized (enhancedRandom) {
+      return nextObject(enhancedRandom, randomizer, type, excludes);
+    }
+  }
+
+  /**
+   * Prefers the given {@code generated} randomizer, if there is one, over random-beans' reflective
+   * population.
+   */
+  private static Object nextObject(
+      EnhancedRandom enhancedRandom,
+      GeneratedRandomizer<?> generated,
+      Class<?> type,
+      String... excludes) {
+    return generated != null
+        ? generated.nextObject(enhancedRandom)
+        : enhancedRandom.nextObject(type, excludes);
+  }
+
+  /** The {@link Random} annotation's default excludes is the placeholder {@code "[]"}. */
+  private static boolean hasExcludes(String... excludes) {
+    return excludes.length > 1 || (excludes.length == 1 && !"[]".equals(excludes[0]));
+  }
+
+  /**
+   * @return a generator of random primitives, {@link java.util.Random}'s primitive generators are
+   *     thread safe so this needs no further coordination
+   */
+  java.util.Random primitives() {
+    return primitives.get();
+  }
+
+  /**
+   * @param type the type of object required
+   * @param size the number of objects required
+   * @param excludes the fields to be excluded from the generated objects
+   * @return a stream of {@code size} random instances of the given {@code type}, each instance is
+   *     generated by the thread which consumes it
+   */
+  Stream<Object> objects(Class<?> type, int size, String... excludes) {
+    return Stream.generate(() -> nextObject(type, excludes)).limit(size);
+  }
+}
@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.glytching.junit.extension.random;
+
+import org.junit.jupiter.api.TestTemplate;
+
+import java.lang.annotation.*;
+
+/**
+ * Turns a test into a template which is run {@link #tries()} times, each time with fresh {@link
+ * Random} parameters and fields. The test class must be extended with the {@link
+ * RandomBeansExtension}, which provides the tries.
+ *
+ * <p>Every try is seeded (from {@link #seed()}, from the {@link RandomBeansExtension#SEED_PROPERTY}
+ * system property or, if neither is set, from a seed chosen for the run) so, when a try fails, the
+ * seed is published as a report entry and rerunning with that seed in the {@link
+ * RandomBeansExtension#SEED_PROPERTY} system property reproduces the failing try exactly. Seeding
+ * requires the extension's default randomization parameters, a test which uses its own {@code
+ * EnhancedRandom} still gets its tries but they are not seeded.
+ *
+ * <p>Usage example:
+ *
+ * <pre>
+ * &#064;ExtendWith(RandomBeansExtension.class)
+ * public class MyTest {
+ *
+ *     &#064;RandomTest(tries = 100)
+ *     public void canCacheHotKeys(
+ *         &#064;Random(size = 1000, distribution = Distribution.ZIPFIAN) long[] keys) {
+ *         // ...
+ *     }
+ * }
+ * </pre>
+ *
+ * @since 2.7.0
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.ANNOTATION_TYPE})
+@Documented
+@TestTemplate
+public @interface RandomTest {
+
+  /**
+   * The number of times the test is run.
+   *
+   * @return the number of tries, defaults to 100
+   */
+  int tries() default 100;
+
+  /**
+   * A seed for the tries, this takes precedence over the {@link
+   * RandomBeansExtension#SEED_PROPERTY} system property. A seed of {@code 0} (the default) means
+   * <em>not seeded</em>.
+   *
+   * @return the seed from which each try derives its own seed, defaults to not seeded
+   */
+  long seed() default 0;
+}
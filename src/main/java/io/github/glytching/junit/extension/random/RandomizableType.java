@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.glytching.junit.extension.random;
+
+import java.lang.annotation.*;
+
+/**
+ * Marks a type for which a plain Java randomizer should be generated at compile time. The {@link
+ * RandomBeansExtension} prefers a generated randomizer over random-beans' reflective population
+ * whenever it is asked for an instance of the type without any {@link Random#excludes()}, this
+ * avoids the cost of introspecting, instantiating and populating the type by reflection on every
+ * request. An extension which was given its own {@link
+ * io.github.benas.randombeans.api.EnhancedRandom} (or a factory for one) always delegates to that
+ * {@link io.github.benas.randombeans.api.EnhancedRandom}, so that any custom randomizers, excludes
+ * and other parameters registered with it are honoured.
+ *
+ * <p>The randomizer is generated by the {@link RandomizableTypeProcessor}, which is included in
+ * this library but which only runs if it is named on the compiler's processor path (see the
+ * processor's documentation). The randomizer is named {@code <TypeName>_Randomizer} and it is
+ * created in the same package as the annotated type. A nested type's name is flattened, so the
+ * randomizer for {@code Outer.Inner} is {@code Outer_Inner_Randomizer}. If the processor does not
+ * run then no randomizer is generated and the extension falls back to random-beans.
+ *
+ * <p>The annotated type must be a non abstract, non generic, class with a non private no-arg
+ * constructor. Every non static, non final, field in the type (including inherited fields) must
+ * either be accessible from the type's package or have an accessible setter.
+ *
+ * <p>A generated randomizer populates primitive and boxed primitive fields directly from the
+ * {@link io.github.benas.randombeans.api.EnhancedRandom}, it populates {@code List}, {@code Set}
+ * and {@code Collection} fields with between 1 and 10 elements and it delegates every other field
+ * to random-beans. A field of any other generic type, such as {@code Map<K, V>} or {@code
+ * List<List<T>>}, cannot be populated by random-beans from its class alone so it is reported as a
+ * compilation error. Unlike random-beans it populates every field, including fields which are
+ * initialised by the type's constructor.
+ *
+ * <p>Usage example:
+ *
+ * <pre>
+ *  &#064;RandomizableType
+ *  public class MyDomainObject {
+ *    private int id;
+ *    private String name;
+ *
+ *    // ... getters and setters
+ *  }
+ * </pre>
+ *
+ * @since 2.7.0
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+@Documented
+public @interface RandomizableType {}
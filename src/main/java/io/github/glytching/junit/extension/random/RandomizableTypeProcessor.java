@@ -0,0 +1,386 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.glytching.junit.extension.random;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.ExecutableType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Generates a {@link GeneratedRandomizer} for each type annotated with {@link RandomizableType}.
+ * The generated randomizer instantiates the type with its no-arg constructor and then assigns each
+ * field directly or, if the field is not accessible, via its setter. A type which cannot be
+ * randomized this way is reported as a compilation error.
+ *
+ * <p>This processor is not registered as a service, so it does not run implicitly wherever this
+ * library is on the compile classpath (which recent JDKs warn about or no longer allow). Opt in by
+ * naming it on the processor path, for example with Maven:
+ *
+ * <pre>
+ * &lt;plugin&gt;
+ *   &lt;artifactId&gt;maven-compiler-plugin&lt;/artifactId&gt;
+ *   &lt;configuration&gt;
+ *     &lt;annotationProcessorPaths&gt;
+ *       &lt;path&gt;
+ *         &lt;groupId&gt;io.github.glytching&lt;/groupId&gt;
+ *         &lt;artifactId&gt;junit-extensions&lt;/artifactId&gt;
+ *         &lt;version&gt;...&lt;/version&gt;
+ *       &lt;/path&gt;
+ *     &lt;/annotationProcessorPaths&gt;
+ *     &lt;annotationProcessors&gt;
+ *       &lt;annotationProcessor&gt;
+ *         io.github.glytching.junit.extension.random.RandomizableTypeProcessor
+ *       &lt;/annotationProcessor&gt;
+ *     &lt;/annotationProcessors&gt;
+ *   &lt;/configuration&gt;
+ * &lt;/plugin&gt;
+ * </pre>
+ *
+ * <p>Or, with {@code javac}: {@code -processorpath junit-extensions.jar -processor
+ * io.github.glytching.junit.extension.random.RandomizableTypeProcessor}.
+ *
+ * @since 2.7.0
+ */
+@SupportedAnnotationTypes("io.github.glytching.junit.extension.random.RandomizableType")
+public class RandomizableTypeProcessor extends AbstractProcessor {
+
+  private static final String RANDOM = "random";
+  private static final String INSTANCE = "instance";
+
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  @Override
+  public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+    for (Element element : roundEnv.getElementsAnnotatedWith(RandomizableType.class)) {
+      if (element.getKind() != ElementKind.CLASS) {
+        error(element, "@RandomizableType can only be applied to a class");
+        continue;
+      }
+      TypeElement type = (TypeElement) element;
+      try {
+        if (isRandomizable(type)) {
+          write(type, assignments(type));
+        }
+      } catch (UnsupportedFieldException ex) {
+        error(ex.field, ex.getMessage());
+      } catch (IOException ex) {
+        error(type, "Failed to write randomizer: " + ex.getMessage());
+      }
+    }
+    return true;
+  }
+
+  private boolean isRandomizable(TypeElement type) {
+    Set<Modifier> modifiers = type.getModifiers();
+    if (modifiers.contains(Modifier.ABSTRACT)) {
+      error(type, "@RandomizableType cannot be applied to an abstract class");
+    } else if (!type.getTypeParameters().isEmpty()) {
+      error(type, "@RandomizableType cannot be applied to a generic class");
+    } else if (type.getNestingKind().isNested() && !modifiers.contains(Modifier.STATIC)) {
+      error(type, "@RandomizableType cannot be applied to an inner class, make it static");
+    } else if (!isAccessible(type) || !hasAccessibleNoArgConstructor(type)) {
+      error(type, "@RandomizableType requires a non private class with a non private no-arg ctor");
+    } else {
+      return true;
+    }
+    return false;
+  }
+
+  private boolean hasAccessibleNoArgConstructor(TypeElement type) {
+    for (ExecutableElement constructor :
+        ElementFilter.constructorsIn(type.getEnclosedElements())) {
+      if (constructor.getParameters().isEmpty()) {
+        return !constructor.getModifiers().contains(Modifier.PRIVATE);
+      }
+    }
+    return false;
+  }
+
+  /** @return a statement assigning a random value to each field of the type and of its parents */
+  private List<String> assignments(TypeElement type) {
+    Types types = processingEnv.getTypeUtils();
+    Elements elements = processingEnv.getElementUtils();
+    PackageElement randomizerPackage = elements.getPackageOf(type);
+    DeclaredType declaredType = (DeclaredType) type.asType();
+
+    List<String> assignments = new ArrayList<>();
+    for (TypeElement current = type; current != null; current = parentOf(current)) {
+      for (VariableElement field : ElementFilter.fieldsIn(current.getEnclosedElements())) {
+        Set<Modifier> modifiers = field.getModifiers();
+        if (modifiers.contains(Modifier.STATIC) || modifiers.contains(Modifier.FINAL)) {
+          continue;
+        }
+        // resolves any type arguments supplied to a generic parent
+        TypeMirror fieldType = types.asMemberOf(declaredType, field);
+        String value = valueOf(field, fieldType);
+        String name = field.getSimpleName().toString();
+        if (isAccessible(field, randomizerPackage)) {
+          assignments.add(String.format("%s.%s = %s;", INSTANCE, name, value));
+        } else {
+          String setter = "set" + Character.toUpperCase(name.charAt(0)) + name.substring(1);
+          if (!hasSetter(type, setter, fieldType, randomizerPackage)) {
+            throw new UnsupportedFieldException(
+                field,
+                String.format(
+                    "@RandomizableType cannot populate field [%s], it must be accessible from"
+                        + " package [%s] or have an accessible setter",
+                    name, randomizerPackage.getQualifiedName()));
+          }
+          assignments.add(String.format("%s.%s(%s);", INSTANCE, setter, value));
+        }
+      }
+    }
+    return assignments;
+  }
+
+  private TypeElement parentOf(TypeElement type) {
+    TypeMirror parent = type.getSuperclass();
+    if (parent.getKind() != TypeKind.DECLARED) {
+      return null;
+    }
+    TypeElement parentElement = (TypeElement) ((DeclaredType) parent).asElement();
+    return parentElement.getQualifiedName().contentEquals(Object.class.getName())
+        ? null
+        : parentElement;
+  }
+
+  private boolean hasSetter(
+      TypeElement type, String setter, TypeMirror fieldType, PackageElement randomizerPackage) {
+    Types types = processingEnv.getTypeUtils();
+    DeclaredType declaredType = (DeclaredType) type.asType();
+    for (ExecutableElement method :
+        ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(type))) {
+      if (method.getSimpleName().contentEquals(setter)
+          && method.getParameters().size() == 1
+          && !method.getModifiers().contains(Modifier.STATIC)
+          && isAccessible(method, randomizerPackage)) {
+        TypeMirror parameterType =
+            ((ExecutableType) types.asMemberOf(declaredType, method))
+                .getParameterTypes()
+                .get(0);
+        if (types.isSameType(parameterType, fieldType)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * @return a Java expression which evaluates to a random value of the given {@code type}
+   * @throws UnsupportedFieldException if the given {@code type} is generic and is not a collection
+   *     which {@link #collectionOf(TypeMirror)} can populate, random-beans would only see its
+   *     erasure and would, for example, populate a {@code Map<K, V>} with an empty map
+   */
+  private String valueOf(VariableElement field, TypeMirror type) {
+    Types types = processingEnv.getTypeUtils();
+    TypeKind kind = type.getKind();
+    if (kind == TypeKind.DECLARED) {
+      try {
+        kind = types.unboxedType(type).getKind();
+      } catch (IllegalArgumentException ex) {
+        // not a boxed primitive
+      }
+    }
+    switch (kind) {
+      case BOOLEAN:
+        return RANDOM + ".nextBoolean()";
+      case BYTE:
+        return "(byte) " + RANDOM + ".nextInt()";
+      case SHORT:
+        return "(short) " + RANDOM + ".nextInt()";
+      case INT:
+        return RANDOM + ".nextInt()";
+      case LONG:
+        return RANDOM + ".nextLong()";
+      case FLOAT:
+        return RANDOM + ".nextFloat()";
+      case DOUBLE:
+        return RANDOM + ".nextDouble()";
+      case CHAR:
+        // honours the random's charset
+        return RANDOM + ".nextObject(java.lang.Character.class)";
+      default:
+        String collection = collectionOf(type);
+        if (collection != null) {
+          return collection;
+        }
+        if (isGeneric(type)) {
+          throw new UnsupportedFieldException(
+              field,
+              String.format(
+                  "@RandomizableType cannot populate field [%s] of type [%s], the only generic"
+                      + " types supported are List, Set and Collection of a non generic type",
+                  field.getSimpleName(), type));
+        }
+        return String.format("%s.nextObject(%s.class)", RANDOM, canonicalName(type));
+    }
+  }
+
+  /**
+   * @return the canonical name of the given {@code type}'s erasure. A {@link TypeMirror}'s {@code
+   *     toString()} is not used since it includes any type-use annotations (e.g. {@code @NonNull
+   *     java.lang.String}) and so is not always a valid class literal.
+   */
+  private String canonicalName(TypeMirror type) {
+    TypeMirror erasure = processingEnv.getTypeUtils().erasure(type);
+    switch (erasure.getKind()) {
+      case DECLARED:
+        return ((TypeElement) ((DeclaredType) erasure).asElement()).getQualifiedName().toString();
+      case ARRAY:
+        return canonicalName(((ArrayType) erasure).getComponentType()) + "[]";
+      default:
+        // a primitive
+        return erasure.getKind().name().toLowerCase(Locale.ROOT);
+    }
+  }
+
+  /** @return true if the given {@code type} has type arguments, or is an array of such a type */
+  private boolean isGeneric(TypeMirror type) {
+    switch (type.getKind()) {
+      case DECLARED:
+        return !((DeclaredType) type).getTypeArguments().isEmpty();
+      case ARRAY:
+        return isGeneric(((ArrayType) type).getComponentType());
+      case TYPEVAR:
+      case WILDCARD:
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * @return an expression creating a populated {@code List}, {@code Set} or {@code Collection} if
+   *     the given {@code type} is one of these with a non generic element type, null otherwise
+   */
+  private String collectionOf(TypeMirror type) {
+    if (type.getKind() != TypeKind.DECLARED) {
+      return null;
+    }
+    DeclaredType declaredType = (DeclaredType) type;
+    if (declaredType.getTypeArguments().size() != 1) {
+      return null;
+    }
+    TypeMirror elementType = declaredType.getTypeArguments().get(0);
+    if (elementType.getKind() != TypeKind.DECLARED
+        || !((DeclaredType) elementType).getTypeArguments().isEmpty()) {
+      return null;
+    }
+
+    String rawType = ((TypeElement) declaredType.asElement()).getQualifiedName().toString();
+    if (rawType.equals(List.class.getName()) || rawType.equals("java.util.Collection")) {
+      return String.format("listOf(%s, %s.class)", RANDOM, canonicalName(elementType));
+    } else if (rawType.equals(Set.class.getName())) {
+      return String.format("setOf(%s, %s.class)", RANDOM, canonicalName(elementType));
+    }
+    return null;
+  }
+
+  private void write(TypeElement type, List<String> assignments) throws IOException {
+    Elements elements = processingEnv.getElementUtils();
+    String packageName = elements.getPackageOf(type).getQualifiedName().toString();
+    String binaryName = elements.getBinaryName(type).toString();
+    String flatName =
+        packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1);
+    String randomizerName = GeneratedRandomizers.randomizerName(packageName, flatName);
+    String simpleName = randomizerName.substring(randomizerName.lastIndexOf('.') + 1);
+    String typeName = type.getQualifiedName().toString();
+
+    try (Writer writer =
+        processingEnv.getFiler().createSourceFile(randomizerName, type).openWriter()) {
+      if (!packageName.isEmpty()) {
+        writer.write("package " + packageName + ";\n\n");
+      }
+      writer.write(
+          String.format(
+              "/** Generated by %s for {@link %s}. */\n", getClass().getName(), typeName));
+      writer.write(
+          String.format(
+              "public final class %s extends %s<%s> {\n\n",
+              simpleName, GeneratedRandomizer.class.getName(), typeName));
+      writer.write("  @Override\n");
+      writer.write("  @SuppressWarnings(\"unchecked\")\n");
+      writer.write(
+          String.format(
+              "  public %s nextObject(io.github.benas.randombeans.api.EnhancedRandom %s) {\n",
+              typeName, RANDOM));
+      writer.write(String.format("    %s %s = new %s();\n", typeName, INSTANCE, typeName));
+      for (String assignment : assignments) {
+        writer.write("    " + assignment + "\n");
+      }
+      writer.write("    return " + INSTANCE + ";\n");
+      writer.write("  }\n");
+      writer.write("}\n");
+    }
+  }
+
+  private boolean isAccessible(TypeElement type) {
+    for (Element current = type; current instanceof TypeElement;
+        current = current.getEnclosingElement()) {
+      if (current.getModifiers().contains(Modifier.PRIVATE)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private boolean isAccessible(Element member, PackageElement fromPackage) {
+    Set<Modifier> modifiers = member.getModifiers();
+    if (modifiers.contains(Modifier.PUBLIC)) {
+      return true;
+    }
+    return !modifiers.contains(Modifier.PRIVATE)
+        && processingEnv.getElementUtils().getPackageOf(member).equals(fromPackage);
+  }
+
+  private void error(Element element, String message) {
+    processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+  }
+
+  /** Raised when a field of a {@link RandomizableType} cannot be populated. */
+  private static final class UnsupportedFieldException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final transient Element field;
+
+    UnsupportedFieldException(Element field, String message) {
+      super(message);
+      this.field = field;
+    }
+  }
+}
@@ -0,0 +1,188 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.glytching.junit.extension.random;
+
+import io.github.benas.randombeans.EnhancedRandomBuilder;
+import io.github.benas.randombeans.api.EnhancedRandom;
+import io.github.benas.randombeans.api.EnhancedRandomParameters;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * An {@link EnhancedRandom} which is built once and then reseeded, rather than rebuilt, for each
+ * seed. Building an {@link EnhancedRandom} costs milliseconds (mostly spent preparing its
+ * randomizers) whereas generating a value from it costs microseconds, so rebuilding for every
+ * seeded test would dominate the cost of random generation.
+ *
+ * <p>random-beans seeds every randomizer it creates with the same seed, {@link
+ * EnhancedRandomParameters#getSeed()}, so reseeding each {@link java.util.Random} reachable from
+ * the {@link EnhancedRandom} (and its parameters, which seed any randomizers created later) leaves
+ * it in the same state as a newly built {@link EnhancedRandom} with that seed. The reachable
+ * {@link java.util.Random}s are found by walking random-beans' own objects, and the collections
+ * which hold them, once and walked again only if one of those collections has since grown. If the
+ * walk is not possible (e.g. on a version of random-beans whose objects cannot be accessed) then
+ * each seed falls back to a newly built {@link EnhancedRandom}.
+ *
+ * <p>Instances are not thread safe, each thread should have its own instance.
+ */
+final class ReseedableRandom {
+
+  private static final String RANDOM_BEANS_PACKAGE = "io.github.benas.randombeans.";
+
+  private static final ClassValue<Field[]> REFERENCES =
+      new ClassValue<Field[]>() {
+        @Override
+        protected Field[] computeValue(Class<?> type) {
+          List<Field> references = new ArrayList<>();
+          for (Class<?> current = type;
+              current != null && current != Object.class;
+              current = current.getSuperclass()) {
+            for (Field field : current.getDeclaredFields()) {
+              if (!Modifier.isStatic(field.getModifiers()) && !field.getType().isPrimitive()) {
+                field.setAccessible(true);
+                references.add(field);
+              }
+            }
+          }
+          return references.toArray(new Field[0]);
+        }
+      };
+
+  private final Supplier<EnhancedRandomBuilder> builder;
+  private final EnhancedRandom random;
+
+  private List<java.util.Random> randoms;
+  private List<EnhancedRandomParameters> parameters;
+  private List<Object> containers;
+  private int[] containerSizes;
+  private boolean walkable = true;
+
+  /**
+   * @param builder supplies a builder for the {@link EnhancedRandom}, this is invoked once here
+   *     and again only if reseeding is not possible
+   */
+  ReseedableRandom(Supplier<EnhancedRandomBuilder> builder) {
+    this.builder = builder;
+    this.random = builder.get().build();
+  }
+
+  /** @return the {@link EnhancedRandom}, in whatever state its last use left it */
+  EnhancedRandom current() {
+    return random;
+  }
+
+  /**
+   * @param seed the seed
+   * @return an {@link EnhancedRandom} in the same state as a newly built {@link EnhancedRandom}
+   *     with the given {@code seed}
+   */
+  EnhancedRandom reseed(long seed) {
+    if (walkable && (randoms == null || hasGrown())) {
+      walkable = walk();
+    }
+    if (!walkable) {
+      return builder.get().seed(seed).build();
+    }
+    for (EnhancedRandomParameters parameter : parameters) {
+      parameter.setSeed(seed);
+    }
+    for (java.util.Random r : randoms) {
+      r.setSeed(seed);
+    }
+    return random;
+  }
+
+  private boolean hasGrown() {
+    for (int i = 0; i < containers.size(); i++) {
+      if (size(containers.get(i)) != containerSizes[i]) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** Find every {@link java.util.Random} and parameters object reachable from the random. */
+  private boolean walk() {
+    List<java.util.Random> foundRandoms = new ArrayList<>();
+    List<EnhancedRandomParameters> foundParameters = new ArrayList<>();
+    List<Object> foundContainers = new ArrayList<>();
+    Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+    Deque<Object> pending = new ArrayDeque<>();
+    pending.push(random);
+    try {
+      while (!pending.isEmpty()) {
+        Object current = pending.pop();
+        if (!visited.add(current)) {
+          continue;
+        }
+        // a ThreadLocalRandom cannot be reseeded, nor does random-beans seed it
+        if (current instanceof java.util.Random && !(current instanceof ThreadLocalRandom)) {
+          foundRandoms.add((java.util.Random) current);
+        }
+        if (current instanceof EnhancedRandomParameters) {
+          foundParameters.add((EnhancedRandomParameters) current);
+        }
+
+        if (current instanceof Map) {
+          foundContainers.add(current);
+          pushAll(((Map<?, ?>) current).values(), pending);
+        } else if (current instanceof Collection) {
+          foundContainers.add(current);
+          pushAll((Collection<?>) current, pending);
+        } else if (current instanceof Object[]) {
+          pushAll(Arrays.asList((Object[]) current), pending);
+        } else if (current.getClass().getName().startsWith(RANDOM_BEANS_PACKAGE)) {
+          for (Field field : REFERENCES.get(current.getClass())) {
+            Object value = field.get(current);
+            if (value != null) {
+              pending.push(value);
+            }
+          }
+        }
+      }
+    } catch (IllegalAccessException | RuntimeException ex) {
+      return false;
+    }
+
+    randoms = foundRandoms;
+    parameters = foundParameters;
+    containers = foundContainers;
+    containerSizes = new int[foundContainers.size()];
+    for (int i = 0; i < containerSizes.length; i++) {
+      containerSizes[i] = size(foundContainers.get(i));
+    }
+    return true;
+  }
+
+  private static void pushAll(Collection<?> values, Deque<Object> pending) {
+    for (Object value : values) {
+      if (value != null) {
+        pending.push(value);
+      }
+    }
+  }
+
+  private static int size(Object container) {
+    return container instanceof Map
+        ? ((Map<?, ?>) container).size()
+        : ((Collection<?>) container).size();
+  }
+}
@@ -0,0 +1,223 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.glytching.junit.extension.random;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.*;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Estimates the retained size of an object graph, i.e. the number of bytes which the graph
+ * occupies on the heap. The estimate assumes the common layout of a 64 bit JVM with compressed
+ * references: a 12 byte object header, a 16 byte array header, 4 byte references and 8 byte
+ * alignment. It is approximate, for example it ignores padding between fields and it counts
+ * strings as UTF-16 even where the JVM stores them more compactly, but it is close enough to size
+ * a generated object graph.
+ *
+ * <p>Enum constants and classes are shared rather than retained so they do not count towards a
+ * graph's size.
+ */
+final class RetainedSize {
+  static final int OBJECT_HEADER = 12;
+  static final int ARRAY_HEADER = 16;
+  static final int REFERENCE = 4;
+  private static final int ALIGNMENT = 8;
+
+  private static final ClassValue<Layout> LAYOUTS =
+      new ClassValue<Layout>() {
+        @Override
+        protected Layout computeValue(Class<?> type) {
+          return new Layout(type);
+        }
+      };
+
+  // this is a utility class - hide the public ctor
+  private RetainedSize() {}
+
+  /**
+   * @param root the root of an object graph
+   * @return the estimated size, in bytes, of the object graph rooted at the given {@code root}
+   */
+  static long of(Object root) {
+    long size = 0;
+    Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+    Deque<Object> pending = new ArrayDeque<>();
+    push(pending, root);
+    while (!pending.isEmpty()) {
+      Object object = pending.pop();
+      if (!visited.add(object) || object instanceof Enum || object instanceof Class) {
+        continue;
+      }
+
+      Class<?> type = object.getClass();
+      if (type == String.class) {
+        // the string and its character array
+        size += align(OBJECT_HEADER + 12) + align(ARRAY_HEADER + 2L * ((String) object).length());
+      } else if (type.isArray()) {
+        size += arraySize(object, pending);
+      } else {
+        size += LAYOUTS.get(type).size(object, pending);
+      }
+    }
+    return size;
+  }
+
+  /**
+   * @param objects a stream of objects
+   * @param maxBytes the budget for the returned stream
+   * @return a lazy stream of the given {@code objects} which ends before the combined size of its
+   *     elements (each of which is estimated separately and counted along with the reference to it)
+   *     exceeds the given {@code maxBytes}
+   */
+  static Stream<Object> within(Stream<Object> objects, long maxBytes) {
+    Iterator<Object> source = objects.iterator();
+    Iterator<Object> budgeted =
+        new Iterator<Object>() {
+          private long remaining = maxBytes;
+          private Object next;
+          private boolean hasNext;
+          private boolean exhausted;
+
+          @Override
+          public boolean hasNext() {
+            if (!hasNext && !exhausted) {
+              Object candidate = source.hasNext() ? source.next() : null;
+              long size = candidate == null ? Long.MAX_VALUE : REFERENCE + of(candidate);
+              if (size <= remaining) {
+                remaining -= size;
+                next = candidate;
+                hasNext = true;
+              } else {
+                exhausted = true;
+              }
+            }
+            return hasNext;
+          }
+
+          @Override
+          public Object next() {
+            if (!hasNext()) {
+              throw new NoSuchElementException();
+            }
+            hasNext = false;
+            return next;
+          }
+        };
+    return StreamSupport.stream(
+            Spliterators.spliteratorUnknownSize(budgeted, Spliterator.ORDERED), false)
+        .onClose(objects::close);
+  }
+
+  private static long arraySize(Object array, Deque<Object> pending) {
+    int length = Array.getLength(array);
+    Class<?> componentType = array.getClass().getComponentType();
+    if (componentType.isPrimitive()) {
+      return align(ARRAY_HEADER + (long) length * widthOf(componentType));
+    }
+    for (Object element : (Object[]) array) {
+      push(pending, element);
+    }
+    return align(ARRAY_HEADER + (long) length * REFERENCE);
+  }
+
+  private static void push(Deque<Object> pending, Object object) {
+    if (object != null) {
+      pending.push(object);
+    }
+  }
+
+  private static long align(long size) {
+    return (size + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+  }
+
+  private static int widthOf(Class<?> type) {
+    if (type == long.class || type == double.class) {
+      return 8;
+    } else if (type == int.class || type == float.class) {
+      return 4;
+    } else if (type == short.class || type == char.class) {
+      return 2;
+    } else if (type == byte.class || type == boolean.class) {
+      return 1;
+    }
+    return REFERENCE;
+  }
+
+  /** The shallow size of a class's instances and the fields through which they retain others. */
+  private static final class Layout {
+    private final long shallowSize;
+    private final List<Field> references = new ArrayList<>();
+
+    /**
+     * True if some of the class's references cannot be read, typically because the class belongs
+     * to a JDK module which is not open to reflection.
+     */
+    private final boolean opaque;
+
+    private Layout(Class<?> type) {
+      long fieldSize = 0;
+      boolean opaque = false;
+      for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+        for (Field field : current.getDeclaredFields()) {
+          if (Modifier.isStatic(field.getModifiers())) {
+            continue;
+          }
+          fieldSize += widthOf(field.getType());
+          if (!field.getType().isPrimitive()) {
+            try {
+              field.setAccessible(true);
+              references.add(field);
+            } catch (RuntimeException ex) {
+              opaque = true;
+            }
+          }
+        }
+      }
+      this.shallowSize = align(OBJECT_HEADER + fieldSize);
+      this.opaque = opaque;
+    }
+
+    private long size(Object object, Deque<Object> pending) {
+      // an opaque collection's internals are estimated as a single array of references
+      if (opaque && object instanceof Collection) {
+        Collection<?> collection = (Collection<?>) object;
+        collection.forEach(element -> push(pending, element));
+        return shallowSize + align(ARRAY_HEADER + (long) collection.size() * REFERENCE);
+      } else if (opaque && object instanceof Map) {
+        Map<?, ?> map = (Map<?, ?>) object;
+        map.forEach(
+            (key, value) -> {
+              push(pending, key);
+              push(pending, value);
+            });
+        return shallowSize + align(ARRAY_HEADER + 2L * map.size() * REFERENCE);
+      }
+
+      for (Field field : references) {
+        try {
+          push(pending, field.get(object));
+        } catch (IllegalAccessException ex) {
+          // unreachable since the field is accessible, count the reference alone
+        }
+      }
+      return shallowSize;
+    }
+  }
+}
@@ -0,0 +1,153 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.glytching.junit.extension.random;
+
+import io.github.benas.randombeans.api.EnhancedRandom;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectStreamClass;
+import java.lang.reflect.*;
+import java.util.*;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Fingerprints the classes which shape a generated value, so that a {@link FixtureCache} entry is
+ * not reused once any of them (or random-beans itself) has changed.
+ */
+final class TypeFingerprints {
+
+  // this is a utility class - hide the public ctor
+  private TypeFingerprints() {}
+
+  /**
+   * @return the version of random-beans on the classpath, since a different version may generate
+   *     different values from the same seed
+   */
+  static String randomBeansVersion() {
+    return RandomBeansVersion.VALUE;
+  }
+
+  /**
+   * @param types the types of a generated value
+   * @return a fingerprint of the shape of the given {@code types} and of every class reachable
+   *     from them, see {@link #shape(Class[])}
+   */
+  static String fingerprint(Class<?>... types) {
+    return UUID.nameUUIDFromBytes(shape(types).getBytes(UTF_8)).toString();
+  }
+
+  /**
+   * Describes each class reachable from the given {@code types} through the (generic) types of
+   * their instance fields, and of their superclasses' instance fields. A class is described by its
+   * name, its serial version UID (if it is serializable) and the name and type of each of its non
+   * static, non transient, fields. JDK classes are described by name only since they are not
+   * populated field by field and their internals vary from one JDK to another.
+   */
+  static String shape(Class<?>... types) {
+    StringBuilder shape = new StringBuilder();
+    Set<Class<?>> visited = new HashSet<>();
+    Deque<Class<?>> pending = new ArrayDeque<>(Arrays.asList(types));
+    while (!pending.isEmpty()) {
+      Class<?> type = pending.removeFirst();
+      while (type.isArray()) {
+        type = type.getComponentType();
+      }
+      if (type.isPrimitive() || !visited.add(type)) {
+        continue;
+      }
+
+      shape.append(type.getName());
+      ObjectStreamClass serialForm = ObjectStreamClass.lookup(type);
+      if (serialForm != null) {
+        shape.append('#').append(serialForm.getSerialVersionUID());
+      }
+      shape.append('{');
+      if (!isJdkType(type)) {
+        for (Class<?> current = type;
+            current != null && current != Object.class;
+            current = current.getSuperclass()) {
+          Field[] fields = current.getDeclaredFields();
+          // the order of declared fields is unspecified
+          Arrays.sort(fields, Comparator.comparing(Field::getName));
+          for (Field field : fields) {
+            int modifiers = field.getModifiers();
+            if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers)) {
+              continue;
+            }
+            Type fieldType = field.getGenericType();
+            shape.append(field.getName()).append(':').append(fieldType.getTypeName()).append(';');
+            reachable(fieldType, pending);
+          }
+        }
+      }
+      shape.append('}');
+    }
+    return shape.toString();
+  }
+
+  /** Adds the classes named by the given {@code type}, and by its type arguments, to pending. */
+  private static void reachable(Type type, Deque<Class<?>> pending) {
+    if (type instanceof Class) {
+      pending.addLast((Class<?>) type);
+    } else if (type instanceof ParameterizedType) {
+      reachable(((ParameterizedType) type).getRawType(), pending);
+      for (Type argument : ((ParameterizedType) type).getActualTypeArguments()) {
+        reachable(argument, pending);
+      }
+    } else if (type instanceof GenericArrayType) {
+      reachable(((GenericArrayType) type).getGenericComponentType(), pending);
+    } else if (type instanceof WildcardType) {
+      for (Type bound : ((WildcardType) type).getUpperBounds()) {
+        reachable(bound, pending);
+      }
+    } else if (type instanceof TypeVariable) {
+      // only the erasure, a bound may refer back to the variable e.g. T extends Comparable<T>
+      Type bound = ((TypeVariable<?>) type).getBounds()[0];
+      reachable(
+          bound instanceof ParameterizedType ? ((ParameterizedType) bound).getRawType() : bound,
+          pending);
+    }
+  }
+
+  private static boolean isJdkType(Class<?> type) {
+    String name = type.getName();
+    return name.startsWith("java.") || name.startsWith("javax.") || name.startsWith("sun.");
+  }
+
+  /** Reads random-beans' version from the Maven metadata packaged in its jar, once. */
+  private static final class RandomBeansVersion {
+    private static final String POM_PROPERTIES =
+        "/META-INF/maven/io.github.benas/random-beans/pom.properties";
+
+    private static final String VALUE = read();
+
+    private static String read() {
+      try (InputStream in = EnhancedRandom.class.getResourceAsStream(POM_PROPERTIES)) {
+        if (in != null) {
+          Properties properties = new Properties();
+          properties.load(in);
+          return properties.getProperty("version", "-");
+        }
+      } catch (IOException ex) {
+        // fall through, the version is unknown
+      }
+      return "-";
+    }
+  }
+}
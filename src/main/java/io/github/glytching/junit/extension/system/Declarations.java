@@ -0,0 +1,234 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.glytching.junit.extension.system;
+
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+import static org.junit.platform.commons.support.AnnotationSupport.findAnnotation;
+
+/**
+ * The name/value pairs declared on a test class or test method by {@link SystemProperty} or {@link
+ * EnvironmentVariable} annotations, held as parallel arrays. An element's annotations are read
+ * once and the result is cached, so the extensions do not repeat the reflective lookups (nor
+ * allocate anything) each time a test runs. An element with no such annotations maps to {@link
+ * #NONE}.
+ *
+ * <p>The cache is a {@link ClassValue}, keyed by class, and a method's declarations are held with
+ * those of its declaring class. So, the cache does not prevent a test class (or its class loader)
+ * from being unloaded.
+ *
+ * <p>Each name appears once, if an element declares the same name more than once then the last
+ * declared value wins.
+ */
+final class Declarations {
+  static final Declarations NONE = new Declarations(new String[0], new String[0]);
+
+  private static final ClassValue<Declared> systemProperties =
+      new Kind(Declarations::parseSystemProperties);
+  private static final ClassValue<Declared> environmentVariables =
+      new Kind(Declarations::parseEnvironmentVariables);
+
+  final String[] names;
+  final String[] values;
+
+  private Declarations(String[] names, String[] values) {
+    this.names = names;
+    this.values = values;
+  }
+
+  /**
+   * @param testClass a test class
+   * @return the system properties declared on the given {@code testClass}
+   */
+  static Declarations systemProperties(Class<?> testClass) {
+    return systemProperties.get(testClass).declarations;
+  }
+
+  /**
+   * @param testMethod a test method
+   * @return the system properties declared on the given {@code testMethod}
+   */
+  static Declarations systemProperties(Method testMethod) {
+    return systemProperties.get(testMethod.getDeclaringClass()).declared(testMethod);
+  }
+
+  /**
+   * @param testClass a test class
+   * @return the environment variables declared on the given {@code testClass}
+   */
+  static Declarations environmentVariables(Class<?> testClass) {
+    return environmentVariables.get(testClass).declarations;
+  }
+
+  /**
+   * @param testMethod a test method
+   * @return the environment variables declared on the given {@code testMethod}
+   */
+  static Declarations environmentVariables(Method testMethod) {
+    return environmentVariables.get(testMethod.getDeclaringClass()).declared(testMethod);
+  }
+
+  /**
+   * @param testClass the test class
+   * @param testMethod the test method
+   * @return the system properties in effect for a test, see {@link Declared#effective(Method)}
+   */
+  static Declarations systemProperties(Class<?> testClass, Method testMethod) {
+    return systemProperties.get(testClass).effective(testMethod);
+  }
+
+  /**
+   * @param testClass the test class
+   * @param testMethod the test method
+   * @return the environment variables in effect for a test, see {@link Declared#effective(Method)}
+   */
+  static Declarations environmentVariables(Class<?> testClass, Method testMethod) {
+    return environmentVariables.get(testClass).effective(testMethod);
+  }
+
+  boolean isEmpty() {
+    return names.length == 0;
+  }
+
+  int size() {
+    return names.length;
+  }
+
+  private static Declarations parseSystemProperties(AnnotatedElement annotatedElement) {
+    Map<String, String> declared = new LinkedHashMap<>();
+    findAnnotation(annotatedElement, SystemProperties.class)
+        .ifPresent(
+            repeated -> {
+              for (SystemProperty systemProperty : repeated.value()) {
+                declared.put(systemProperty.name(), systemProperty.value());
+              }
+            });
+    findAnnotation(annotatedElement, SystemProperty.class)
+        .ifPresent(single -> declared.put(single.name(), single.value()));
+    return of(declared);
+  }
+
+  private static Declarations parseEnvironmentVariables(AnnotatedElement annotatedElement) {
+    Map<String, String> declared = new LinkedHashMap<>();
+    findAnnotation(annotatedElement, EnvironmentVariables.class)
+        .ifPresent(
+            repeated -> {
+              for (EnvironmentVariable environmentVariable : repeated.value()) {
+                declared.put(environmentVariable.name(), environmentVariable.value());
+              }
+            });
+    findAnnotation(annotatedElement, EnvironmentVariable.class)
+        .ifPresent(single -> declared.put(single.name(), single.value()));
+    return of(declared);
+  }
+
+  /** Only an inner (i.e. nested) test class runs within its enclosing class. */
+  private static Class<?> enclosing(Class<?> type) {
+    return type.isMemberClass() && !Modifier.isStatic(type.getModifiers())
+        ? type.getEnclosingClass()
+        : null;
+  }
+
+  private static Declarations merge(Declarations outer, Declarations inner) {
+    if (outer.isEmpty()) {
+      return inner;
+    }
+    if (inner.isEmpty()) {
+      return outer;
+    }
+    Map<String, String> merged = new LinkedHashMap<>();
+    for (int i = 0; i < outer.size(); i++) {
+      merged.put(outer.names[i], outer.values[i]);
+    }
+    for (int i = 0; i < inner.size(); i++) {
+      merged.put(inner.names[i], inner.values[i]);
+    }
+    return of(merged);
+  }
+
+  private static Declarations of(Map<String, String> declared) {
+    if (declared.isEmpty()) {
+      return NONE;
+    }
+    return new Declarations(
+        declared.keySet().toArray(new String[0]), declared.values().toArray(new String[0]));
+  }
+
+  /** Caches one kind of declaration (system properties or environment variables) per class. */
+  private static final class Kind extends ClassValue<Declared> {
+    private final Function<AnnotatedElement, Declarations> parser;
+
+    private Kind(Function<AnnotatedElement, Declarations> parser) {
+      this.parser = parser;
+    }
+
+    @Override
+    protected Declared computeValue(Class<?> type) {
+      return new Declared(this, type);
+    }
+  }
+
+  /**
+   * The declarations of one kind for a class, for each of its methods and for each test which runs
+   * one of its methods (including any inherited methods) in the context of this class.
+   */
+  private static final class Declared {
+    private final Kind kind;
+    private final Class<?> type;
+    private final Declarations declarations;
+    private final ConcurrentMap<Method, Declarations> methods = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Method, Declarations> effective = new ConcurrentHashMap<>();
+
+    private Declared(Kind kind, Class<?> type) {
+      this.kind = kind;
+      this.type = type;
+      this.declarations = kind.parser.apply(type);
+    }
+
+    /** @param method a method declared by this class */
+    private Declarations declared(Method method) {
+      return methods.computeIfAbsent(method, kind.parser);
+    }
+
+    /**
+     * The declarations in effect for a test are those of its test method, added to those of its
+     * test class, added to those of any classes which enclose a nested test class. An inner
+     * declaration takes precedence over an outer declaration of the same name. If only one of
+     * these elements declares anything then its (cached) declarations are returned as is.
+     *
+     * @param testMethod a method which is run as a test of this class
+     */
+    private Declarations effective(Method testMethod) {
+      return effective.computeIfAbsent(
+          testMethod,
+          method -> {
+            Declarations merged = kind.get(method.getDeclaringClass()).declared(method);
+            for (Class<?> current = type; current != null; current = enclosing(current)) {
+              merged = merge(kind.get(current).declarations, merged);
+            }
+            return merged;
+          });
+    }
+  }
+}
@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.glytching.junit.extension.system;
+
+import org.junit.jupiter.api.extension.ExtensionConfigurationException;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes to the JVM's view of the process environment, as returned by {@link System#getenv()} and
+ * {@link System#getenv(String)}. The JDK offers no API for this so the writable maps which back
+ * those methods are located reflectively, once, and are then written to directly.
+ *
+ * <p>On Java 9 and later this requires the {@code java.util} and {@code java.lang} packages to be
+ * opened to this library, for example: {@code --add-opens java.base/java.util=ALL-UNNAMED
+ * --add-opens java.base/java.lang=ALL-UNNAMED}.
+ */
+final class Environment {
+
+  // resolved on first use, guarded by the class lock which also serialises writes since the
+  // backing maps are not thread safe
+  private static List<Map<String, String>> maps;
+
+  // this is a utility class - hide the public ctor
+  private Environment() {}
+
+  /**
+   * Set the environment variable with the given {@code name}.
+   *
+   * @param name the name of the environment variable
+   * @param value the value to set, if null then the environment variable is removed
+   * @return the environment variable's value before this call, null if it was not set
+   * @throws ExtensionConfigurationException if the environment is not writable
+   */
+  static synchronized String set(String name, String value) {
+    if (maps == null) {
+      maps = resolve();
+    }
+    String previous = System.getenv(name);
+    for (Map<String, String> map : maps) {
+      if (value == null) {
+        map.remove(name);
+      } else {
+        map.put(name, value);
+      }
+    }
+    return previous;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static List<Map<String, String>> resolve() {
+    List<Map<String, String>> resolved = new ArrayList<>(2);
+    try {
+      // System.getenv() is an unmodifiable view over a writable map
+      Map<String, String> environment = System.getenv();
+      Field backingMap = environment.getClass().getDeclaredField("m");
+      backingMap.setAccessible(true);
+      resolved.add((Map<String, String>) backingMap.get(environment));
+
+      // on Windows System.getenv(String) reads from a separate, case insensitive, copy
+      Class<?> processEnvironment = Class.forName("java.lang.ProcessEnvironment");
+      for (Field field : processEnvironment.getDeclaredFields()) {
+        if (field.getName().equals("theCaseInsensitiveEnvironment")) {
+          field.setAccessible(true);
+          resolved.add((Map<String, String>) field.get(null));
+        }
+      }
+    } catch (ReflectiveOperationException | RuntimeException ex) {
+      throw new ExtensionConfigurationException(
+          "Cannot modify the environment, on Java 9 and later run with --add-opens "
+              + "java.base/java.util=ALL-UNNAMED --add-opens java.base/java.lang=ALL-UNNAMED",
+          ex);
+    }
+    return resolved;
+  }
+}
@@ -0,0 +1,213 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.glytching.junit.extension.system;
+
+import org.junit.jupiter.api.extension.*;
+
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import static io.github.glytching.junit.extension.util.ExtensionUtil.getStore;
+
+/**
+ * The environment variable extension sets environment variables before test execution and unsets
+ * them on completion. More specifically:
+ *
+ * <ul>
+ *   <li>If a new environment variable was added then it is removed after test execution completes
+ *   <li>If an existing environment variable was overwritten then its original value is reinstated
+ *       after test execution completes
+ * </ul>
+ *
+ * <p>Environment variables are declared with the {@link EnvironmentVariable} annotation, at class
+ * level and/or at method level, in the same way as system properties are declared for the {@link
+ * SystemPropertyExtension}. The {@link EnvironmentVariable} annotation is repeatable.
+ *
+ * <p>Usage example:
+ *
+ * <pre>
+ *  &#064;EnvironmentVariable(name = "NAME_A", value = "valueA")
+ * public class MyTest {
+ *
+ *     &#064;Test
+ *     &#064;EnvironmentVariable(name = "NAME_B", value = "valueB")
+ *     public void test() {
+ *         // the environment variables NAME_A:valueA, NAME_B:valueB have been set
+ *         // ...
+ *     }
+ * }
+ * </pre>
+ *
+ * <p>The extension changes the JVM's view of the environment (i.e. what {@link System#getenv()}
+ * returns), it cannot change the environment of the operating system process. Since this view is
+ * shared by the whole JVM a test class's environment variables are set before its {@code
+ * BeforeAll} methods and reinstated after its {@code AfterAll} methods, and a test method's around
+ * that test. If parallel execution is enabled then, instead, class level environment variables are
+ * set for each test, along with that test's method level environment variables, and each
+ * environment variable which the extension sets is locked until the test completes, so tests which
+ * set the same environment variable take turns. Class level environment variables are then not
+ * visible to {@code BeforeAll} and {@code AfterAll} methods. On Java 9 and later the extension
+ * requires {@code --add-opens java.base/java.util=ALL-UNNAMED --add-opens
+ * java.base/java.lang=ALL-UNNAMED}.
+ *
+ * @since 2.7.0
+ */
+public class EnvironmentVariableExtension
+    implements AfterEachCallback, BeforeEachCallback, BeforeAllCallback, AfterAllCallback {
+
+  private static final String KEY = "restoreEnvironment";
+  private static final String LOCKS_KEY = "locks";
+
+  // keeps these locks apart from the locks taken by the SystemPropertyExtension
+  private static final String LOCK_PREFIX = "env:";
+
+  /**
+   * If the current test class has an environment variable annotation(s), and tests do not run in
+   * parallel, then set the requested environment variables, retaining the pre-set values for
+   * reinstatement after the test class completes.
+   *
+   * @param extensionContext the <em>context</em> in which the current test or container is being
+   *     executed
+   * @throws Exception
+   */
+  @Override
+  public void beforeAll(ExtensionContext extensionContext) throws Exception {
+    if (!PropertyLocks.areRequired(extensionContext)) {
+      set(
+          extensionContext,
+          Declarations.environmentVariables(extensionContext.getRequiredTestClass()));
+    }
+  }
+
+  /**
+   * Reinstate the environment variables which were set in {@link #beforeAll(ExtensionContext)}
+   * for this {@code extensionContext}.
+   *
+   * @param extensionContext the <em>context</em> in which the current test or container is being
+   *     executed
+   * @throws Exception
+   */
+  @Override
+  public void afterAll(ExtensionContext extensionContext) throws Exception {
+    if (!PropertyLocks.areRequired(extensionContext)) {
+      restore(
+          extensionContext,
+          Declarations.environmentVariables(extensionContext.getRequiredTestClass()));
+    }
+  }
+
+  /**
+   * If the current test method, or its test class, has an environment variable annotation(s) then
+   * set the requested environment variables, retaining the pre-set values for reinstatement after
+   * test execution. Unless tests run in parallel the test class's environment variables have
+   * already been set, by {@link #beforeAll(ExtensionContext)}.
+   *
+   * @param extensionContext the <em>context</em> in which the current test or container is being
+   *     executed
+   * @throws Exception
+   */
+  @Override
+  public void beforeEach(ExtensionContext extensionContext) throws Exception {
+    set(extensionContext, environmentVariables(extensionContext));
+  }
+
+  /**
+   * Reinstate the environment variables which were set in {@link #beforeEach(ExtensionContext)}
+   * for this {@code extensionContext}.
+   *
+   * @param extensionContext the <em>context</em> in which the current test or container is being
+   *     executed
+   * @throws Exception
+   */
+  @Override
+  public void afterEach(ExtensionContext extensionContext) throws Exception {
+    restore(extensionContext, environmentVariables(extensionContext));
+  }
+
+  /**
+   * @return the environment variables to be set around the current test: its effective
+   *     environment variables if tests run in parallel, otherwise just the test method's since its
+   *     class's have been set by {@link #beforeAll(ExtensionContext)}
+   */
+  private Declarations environmentVariables(ExtensionContext extensionContext) {
+    return PropertyLocks.areRequired(extensionContext)
+        ? Declarations.environmentVariables(
+            extensionContext.getRequiredTestClass(), extensionContext.getRequiredTestMethod())
+        : Declarations.environmentVariables(extensionContext.getRequiredTestMethod());
+  }
+
+  /**
+   * Set the given {@code environmentVariables}, retaining the original value of each one (null if
+   * it was unset) so that {@link #restore(ExtensionContext, Declarations)} need only visit the
+   * variables which were changed.
+   */
+  private void set(ExtensionContext extensionContext, Declarations environmentVariables)
+      throws InterruptedException {
+    if (environmentVariables.isEmpty()) {
+      return;
+    }
+    if (PropertyLocks.areRequired(extensionContext)) {
+      lock(extensionContext, environmentVariables);
+    }
+
+    String[] originalValues = new String[environmentVariables.size()];
+    for (int i = 0; i < environmentVariables.size(); i++) {
+      originalValues[i] =
+          Environment.set(environmentVariables.names[i], environmentVariables.values[i]);
+    }
+    getStore(extensionContext, this.getClass()).put(KEY, originalValues);
+  }
+
+  /**
+   * Reinstate the original values of the given {@code environmentVariables}. If the context
+   * declared no environment variables then nothing was set so this returns without consulting the
+   * store.
+   */
+  @SuppressWarnings("unchecked")
+  private void restore(ExtensionContext extensionContext, Declarations environmentVariables) {
+    if (environmentVariables.isEmpty()) {
+      return;
+    }
+    String[] originalValues = getStore(extensionContext, this.getClass()).get(KEY, String[].class);
+    if (originalValues != null) {
+      for (int i = 0; i < originalValues.length; i++) {
+        Environment.set(environmentVariables.names[i], originalValues[i]);
+      }
+    }
+    Set<?> locked = getStore(extensionContext, this.getClass()).get(LOCKS_KEY, Set.class);
+    if (locked != null) {
+      PropertyLocks.release((Set<String>) locked);
+    }
+  }
+
+  /**
+   * Lock the given {@code environmentVariables} for the given {@code extensionContext}. As with the
+   * {@link SystemPropertyExtension}, when tests run in parallel a test's class level and method
+   * level environment variables are locked together, in a single ordered acquisition, and released
+   * when that test completes.
+   */
+  private void lock(ExtensionContext extensionContext, Declarations environmentVariables)
+      throws InterruptedException {
+    SortedSet<String> names = new TreeSet<>();
+    for (String name : environmentVariables.names) {
+      names.add(LOCK_PREFIX + name);
+    }
+    PropertyLocks.acquire(names);
+    getStore(extensionContext, this.getClass()).put(LOCKS_KEY, names);
+  }
+}
@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.glytching.junit.extension.system;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * System properties which can be overlaid, per thread, with test specific values. Once installed
+ * (see {@link #install()}) this replaces the JVM's system properties: it holds every system
+ * property and behaves exactly as the JVM's system properties did, except that a lookup of a
+ * single property by a thread which has an overlay (see {@link #overlay(Map)}) consults that
+ * overlay first. A thread created by a thread which has an overlay inherits that overlay.
+ *
+ * <p>Since overlaid values are never written to the underlying properties, tests which overlay
+ * the same property with different values can run concurrently without interfering with each
+ * other. Bulk views of the properties (e.g. {@link #stringPropertyNames()}) do not include
+ * overlaid values.
+ */
+final class OverlayProperties extends Properties {
+  private static final long serialVersionUID = 1L;
+
+  private static final InheritableThreadLocal<Map<String, String>> overlay =
+      new InheritableThreadLocal<>();
+
+  private OverlayProperties(Properties properties) {
+    putAll(properties);
+  }
+
+  /** Replace the JVM's system properties with overlay properties, unless that has been done. */
+  static synchronized void install() {
+    Properties properties = System.getProperties();
+    if (!(properties instanceof OverlayProperties)) {
+      System.setProperties(new OverlayProperties(properties));
+    }
+  }
+
+  /**
+   * Overlay the calling thread's view of the system properties.
+   *
+   * @param values the overlaid values, null to remove the calling thread's overlay
+   * @return the calling thread's previous overlay, null if it had none
+   */
+  static Map<String, String> overlay(Map<String, String> values) {
+    Map<String, String> previous = overlay.get();
+    if (values == null) {
+      overlay.remove();
+    } else {
+      overlay.set(Collections.unmodifiableMap(values));
+    }
+    return previous;
+  }
+
+  @Override
+  public String getProperty(String key) {
+    Map<String, String> values = overlay.get();
+    String value = values == null ? null : values.get(key);
+    return value != null ? value : super.getProperty(key);
+  }
+
+  @Override
+  public String getProperty(String key, String defaultValue) {
+    String value = getProperty(key);
+    return value != null ? value : defaultValue;
+  }
+
+  @Override
+  public Object get(Object key) {
+    Map<String, String> values = overlay.get();
+    Object value = values == null ? null : values.get(key);
+    return value != null ? value : super.get(key);
+  }
+}
@@ -0,0 +1,116 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.glytching.junit.extension.system;
+
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Exclusive locks on individual system property names (and, with a distinguishing prefix, on
+ * environment variable names). Tests which set the same system property take turns, tests which
+ * set different system properties (and tests which set none) are not held up at all.
+ *
+ * <p>A lock is not owned by a thread: the Jupiter engine may release a context's locks on a
+ * different thread from the one which acquired them. Locks are acquired in name order, so two
+ * tests which set several of the same properties cannot deadlock, and a thread which blocks on a
+ * lock tells its {@link ForkJoinPool} (the Jupiter engine runs parallel tests in a {@link
+ * ForkJoinPool}) so that the pool can compensate by running other tests on another thread.
+ *
+ * <p>Locks are only needed when tests run in parallel, see {@link #areRequired(ExtensionContext)}.
+ */
+final class PropertyLocks {
+  private static final String PARALLEL_PARAMETER = "junit.jupiter.execution.parallel.enabled";
+
+  private static final ConcurrentMap<String, Semaphore> locks = new ConcurrentHashMap<>();
+
+  // this is a utility class - hide the public ctor
+  private PropertyLocks() {}
+
+  /**
+   * @param extensionContext the <em>context</em> in which the current test or container is being
+   *     executed
+   * @return true if parallel execution is enabled, in which case the properties set by a test must
+   *     be locked for the duration of that test
+   */
+  static boolean areRequired(ExtensionContext extensionContext) {
+    return extensionContext
+        .getConfigurationParameter(PARALLEL_PARAMETER)
+        .map(Boolean::parseBoolean)
+        .orElse(false);
+  }
+
+  /**
+   * Lock each of the given property {@code names}, blocking until every lock is held.
+   *
+   * @param names the names of the properties to lock
+   * @throws InterruptedException if interrupted while waiting, in which case no locks are held
+   */
+  static void acquire(SortedSet<String> names) throws InterruptedException {
+    List<String> acquired = new ArrayList<>(names.size());
+    try {
+      for (String name : names) {
+        lock(locks.computeIfAbsent(name, key -> new Semaphore(1)));
+        acquired.add(name);
+      }
+    } catch (InterruptedException ex) {
+      release(acquired);
+      throw ex;
+    }
+  }
+
+  /**
+   * Unlock each of the given property {@code names}.
+   *
+   * @param names the names of properties which were locked by {@link #acquire(SortedSet)}
+   */
+  static void release(Collection<String> names) {
+    for (String name : names) {
+      locks.get(name).release();
+    }
+  }
+
+  private static void lock(Semaphore lock) throws InterruptedException {
+    if (!lock.tryAcquire()) {
+      ForkJoinPool.managedBlock(
+          new ForkJoinPool.ManagedBlocker() {
+            private boolean acquired;
+
+            @Override
+            public boolean block() throws InterruptedException {
+              if (!acquired) {
+                lock.acquire();
+                acquired = true;
+              }
+              return true;
+            }
+
+            @Override
+            public boolean isReleasable() {
+              return acquired || (acquired = lock.tryAcquire());
+            }
+          });
+    }
+  }
+}
@@ -16,11 +16,6 @@
  */
 package io.github.glytching.junit.extension.system;
 
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Set;
-
 /**
  * A context object which encapsulates what the system property extension did. This allows us to
  * reverse any changes made by the extension after test execution completes. For example:
@@ -29,68 +24,39 @@ import java.util.Set;
  *   <li>If a new system property was added then we remove it
  *   <li>If an existing system property was overwritten then we reinstate its original value
  * </ul>
+ *
+ * <p>The property names are shared with the (cached) {@link Declarations} from which they were
+ * set, only the original values are specific to this context.
  */
 final class RestoreContext {
-  private final Set<String> propertyNames;
-  private final Map<String, String> restoreProperties;
+  private final String[] propertyNames;
+  private final String[] originalValues;
 
   /**
-   * Created using the {@link Builder}.
-   *
-   * @param propertyNames
-   * @param restoreProperties
+   * @param propertyNames the names of the system properties which were set
+   * @param originalValues the value of each of the {@code propertyNames} before it was set, null
+   *     if it was not set
    */
-  private RestoreContext(Set<String> propertyNames, Map<String, String> restoreProperties) {
-    this.propertyNames = new HashSet<>(propertyNames);
-    this.restoreProperties = new HashMap<>(restoreProperties);
-  }
-
-  public static Builder createBuilder() {
-    return new Builder();
+  RestoreContext(String[] propertyNames, String[] originalValues) {
+    this.propertyNames = propertyNames;
+    this.originalValues = originalValues;
   }
 
   /**
    * Reverse the system property 'sets' performed on behalf of this restore context.
    *
-   * <p>For each entry in {@link #propertyNames}, if {@link #restoreProperties} contains an entry
-   * then reset the system property with the value from {@link #restoreProperties} otherwise just
-   * remove the system property for that property name.
+   * <p>For each entry in {@link #propertyNames}, if {@link #originalValues} contains a value then
+   * reset the system property with that value otherwise just remove the system property.
    */
   public void restore() {
-    for (String propertyName : propertyNames) {
-      if (restoreProperties.containsKey(propertyName)) {
+    for (int i = 0; i < propertyNames.length; i++) {
+      if (originalValues[i] != null) {
         // reinstate the original value
-        System.setProperty(propertyName, restoreProperties.get(propertyName));
+        System.setProperty(propertyNames[i], originalValues[i]);
       } else {
         // remove the (previously unset) property
-        System.clearProperty(propertyName);
+        System.clearProperty(propertyNames[i]);
       }
     }
   }
-
-  /**
-   * Simple builder implementation allowing a {@link RestoreContext} to be built up as we walk
-   * through system property configuration.
-   */
-  final static class Builder {
-    private final Set<String> properties;
-    private final Map<String, String> restoreProperties;
-
-    private Builder() {
-      properties = new HashSet<>();
-      restoreProperties = new HashMap<>();
-    }
-
-    void addPropertyName(String propertyName) {
-      properties.add(propertyName);
-    }
-
-    void addRestoreProperty(String propertyName, String propertyValue) {
-      restoreProperties.put(propertyName, propertyValue);
-    }
-
-    RestoreContext build() {
-      return new RestoreContext(properties, restoreProperties);
-    }
-  }
 }
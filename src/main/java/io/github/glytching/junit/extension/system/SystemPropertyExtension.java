@@ -18,13 +18,14 @@ package io.github.glytching.junit.extension.system;
 
 import org.junit.jupiter.api.extension.*;
 
-import java.lang.reflect.AnnotatedElement;
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.List;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
 
 import static io.github.glytching.junit.extension.util.ExtensionUtil.getStore;
-import static org.junit.platform.commons.util.AnnotationUtils.isAnnotated;
 
 /**
  * The system property extension sets system properties before test execution and unsets them on
@@ -107,17 +108,46 @@ import static org.junit.platform.commons.util.AnnotationUtils.isAnnotated;
  * }
  * </pre>
  *
+ * <p>By default the extension sets system properties for the whole JVM so tests which use it must
+ * not run in parallel. If the {@link #OVERLAY_PARAMETER} configuration parameter is {@code true}
+ * then the extension instead overlays the system properties seen by each test (and by any thread
+ * the test starts), leaving the JVM's system properties untouched, so such tests can run in
+ * parallel. Code which reads a single property (e.g. via {@link System#getProperty(String)}) sees
+ * the overlay, bulk views of the system properties do not.
+ *
+ * <p>When the extension does set system properties for the whole JVM a test class's system
+ * properties are set before its {@code BeforeAll} methods and reinstated after its {@code AfterAll}
+ * methods, a test method's system properties are set around that test. If parallel execution is
+ * enabled then, instead, a test class's system properties are set around each test, along with the
+ * test method's, and the extension locks each property it sets until the test completes. So, tests
+ * which run in parallel and which set the same system property take turns while tests which set
+ * different system properties, or none at all, are not held up. Since the class level properties
+ * are then set for each test they are not visible to {@code BeforeAll} and {@code AfterAll}
+ * methods when tests run in parallel.
+ *
  * @since 1.0.0
  */
 public class SystemPropertyExtension
     implements AfterEachCallback, BeforeEachCallback, BeforeAllCallback, AfterAllCallback {
 
+  /**
+   * The configuration parameter which, when {@code true}, makes the extension overlay each test's
+   * view of the system properties rather than setting them for the whole JVM. This allows tests
+   * which use {@link SystemProperty} to run in parallel. Configuration parameters can be supplied
+   * in {@code junit-platform.properties} or as system properties.
+   *
+   * @since 2.7.0
+   */
+  public static final String OVERLAY_PARAMETER = "junit.extensions.systemproperty.overlay";
+
   private static final String KEY = "restoreContext";
+  private static final String LOCKS_KEY = "locks";
 
   /**
-   * If the current test class has a system property annotation(s) then create a {@link
-   * RestoreContext} representing the annotation(s). This causes the requested system properties to
-   * be set and retains a copy of pre-set values for reinstatement after test execution.
+   * If the current test class has a system property annotation(s), and tests are neither overlaid
+   * nor run in parallel, then create a {@link RestoreContext} representing the annotation(s). This
+   * causes the requested system properties to be set and retains a copy of pre-set values for
+   * reinstatement after the test class completes.
    *
    * @param extensionContext the <em>context</em> in which the current test or container is being
    *     executed
@@ -125,20 +155,8 @@ public class SystemPropertyExtension
    */
   @Override
   public void beforeAll(ExtensionContext extensionContext) throws Exception {
-    List<SystemProperty> systemProperties =
-        getSystemProperties(extensionContext.getRequiredTestClass());
-    if (!systemProperties.isEmpty()) {
-      RestoreContext.Builder builder = RestoreContext.createBuilder();
-      for (SystemProperty systemProperty : systemProperties) {
-        builder.addPropertyName(systemProperty.name());
-        if (System.getProperty(systemProperty.name()) != null) {
-          builder.addRestoreProperty(
-              systemProperty.name(), System.getProperty(systemProperty.name()));
-        }
-
-        set(systemProperty);
-      }
-      writeRestoreContext(extensionContext, builder.build());
+    if (isPerClass(extensionContext)) {
+      set(extensionContext, Declarations.systemProperties(extensionContext.getRequiredTestClass()));
     }
   }
 
@@ -153,16 +171,20 @@ public class SystemPropertyExtension
    */
   @Override
   public void afterAll(ExtensionContext extensionContext) throws Exception {
-    RestoreContext restoreContext = readRestoreContext(extensionContext);
-    if (restoreContext != null) {
-      restoreContext.restore();
+    if (isPerClass(extensionContext)) {
+      restore(
+          extensionContext, Declarations.systemProperties(extensionContext.getRequiredTestClass()));
     }
   }
 
   /**
-   * If the current test method has a system property annotation(s) then create a {@link
-   * RestoreContext} representing the annotation(s). This causes the requested system properties to
-   * be set and retains a copy of pre-set values for reinstatement after test execution.
+   * If the current test method, or its test class, has a system property annotation(s) then either
+   * overlay the calling thread's view of the requested system properties (if {@link
+   * #OVERLAY_PARAMETER} is enabled) or create a {@link RestoreContext} representing the
+   * annotation(s). The latter causes the requested system properties to be set and retains a copy
+   * of pre-set values for reinstatement after test execution. Unless tests run in parallel the
+   * test class's system properties have already been set, by {@link
+   * #beforeAll(ExtensionContext)}.
    *
    * @param extensionContext the <em>context</em> in which the current test or container is being
    *     executed
@@ -170,27 +192,18 @@ public class SystemPropertyExtension
    */
   @Override
   public void beforeEach(ExtensionContext extensionContext) throws Exception {
-    List<SystemProperty> systemProperties =
-        getSystemProperties(extensionContext.getRequiredTestMethod());
-    if (!systemProperties.isEmpty()) {
-      RestoreContext.Builder builder = RestoreContext.createBuilder();
-      for (SystemProperty systemProperty : systemProperties) {
-        builder.addPropertyName(systemProperty.name());
-        if (System.getProperty(systemProperty.name()) != null) {
-          builder.addRestoreProperty(
-              systemProperty.name(), System.getProperty(systemProperty.name()));
-        }
-
-        set(systemProperty);
-      }
-      writeRestoreContext(extensionContext, builder.build());
+    if (isOverlaid(extensionContext)) {
+      overlay(effectiveSystemProperties(extensionContext));
+    } else {
+      set(extensionContext, systemProperties(extensionContext));
     }
   }
 
   /**
-   * If a {@link RestoreContext} exists for the given {@code extensionContext} then restore it i.e.
-   * unset any system properties which were set in {@link #beforeEach(ExtensionContext)} for this
-   * {@code extensionContext} and reinstate original value, if applicable.
+   * Remove the calling thread's overlay or, if a {@link RestoreContext} exists for the given {@code
+   * extensionContext}, restore it i.e. unset any system properties which were set in {@link
+   * #beforeEach(ExtensionContext)} for this {@code extensionContext} and reinstate original value,
+   * if applicable.
    *
    * @param extensionContext the <em>context</em> in which the current test or container is being
    *     executed
@@ -198,49 +211,125 @@ public class SystemPropertyExtension
    */
   @Override
   public void afterEach(ExtensionContext extensionContext) throws Exception {
+    if (isOverlaid(extensionContext)) {
+      OverlayProperties.overlay(null);
+    } else {
+      restore(extensionContext, systemProperties(extensionContext));
+    }
+  }
+
+  /**
+   * @return the system properties to be set around the current test: just the test method's if
+   *     its class's have been set by {@link #beforeAll(ExtensionContext)}, otherwise its effective
+   *     system properties
+   */
+  private Declarations systemProperties(ExtensionContext extensionContext) {
+    return isPerClass(extensionContext)
+        ? Declarations.systemProperties(extensionContext.getRequiredTestMethod())
+        : effectiveSystemProperties(extensionContext);
+  }
+
+  private Declarations effectiveSystemProperties(ExtensionContext extensionContext) {
+    return Declarations.systemProperties(
+        extensionContext.getRequiredTestClass(), extensionContext.getRequiredTestMethod());
+  }
+
+  /**
+   * Set the given {@code systemProperties} for the whole JVM having first, if tests run in
+   * parallel, locked them for the given {@code extensionContext}.
+   */
+  private void set(ExtensionContext extensionContext, Declarations systemProperties)
+      throws InterruptedException {
+    if (systemProperties.isEmpty()) {
+      return;
+    }
+    if (PropertyLocks.areRequired(extensionContext)) {
+      lock(extensionContext, systemProperties);
+    }
+
+    String[] originalValues = new String[systemProperties.size()];
+    for (int i = 0; i < systemProperties.size(); i++) {
+      originalValues[i] = System.setProperty(systemProperties.names[i], systemProperties.values[i]);
+    }
+    writeRestoreContext(
+        extensionContext, new RestoreContext(systemProperties.names, originalValues));
+  }
+
+  /**
+   * Reverse whatever {@link #set(ExtensionContext, Declarations)} did for the given {@code
+   * extensionContext}. If the test declared no system properties then nothing was set so this
+   * returns without consulting the store.
+   */
+  @SuppressWarnings("unchecked")
+  private void restore(ExtensionContext extensionContext, Declarations systemProperties) {
+    if (systemProperties.isEmpty()) {
+      return;
+    }
     RestoreContext restoreContext = readRestoreContext(extensionContext);
     if (restoreContext != null) {
       restoreContext.restore();
     }
+    Set<?> locked = getStore(extensionContext, this.getClass()).get(LOCKS_KEY, Set.class);
+    if (locked != null) {
+      PropertyLocks.release((Set<String>) locked);
+    }
   }
 
   /**
-   * Get a collection of {@link SystemProperty} for the given {@code annotatedElement}. If the given
-   * {@code annotatedElement} has no such annotations then an empty list is returned, if the given
-   * {@code annotatedElement} is annotated with {@link SystemProperty} then a list with one element
-   * is returned, if the given {@code annotatedElement} is annotated with {@link SystemProperties}
-   * then a list with one element for each of the repeated {@link SystemProperty} values is
-   * returned.
-   *
-   * <p>This is essentially a shortcut for logic such as: 'does this element have the {@link
-   * SystemProperty} annotation, if not does it have the {@link SystemProperties}' followed by
-   * gathering these annotation values.
-   *
-   * @param annotatedElement either a test class or a test method which may be annotated with a
-   *     system property annotation
-   * @return 0..* {@link SystemProperty} elements
+   * Lock the given {@code systemProperties} for the given {@code extensionContext}, so that no
+   * other test which sets the same system properties can run until this test completes. When tests
+   * run in parallel a test's class level and method level properties are locked together, in a
+   * single ordered acquisition, and no lock is held across several tests. So, no two tests can each
+   * hold a lock which the other is waiting for.
    */
-  private List<SystemProperty> getSystemProperties(AnnotatedElement annotatedElement) {
-    List<SystemProperty> systemProperties = new ArrayList<>();
-    if (isAnnotated(annotatedElement, SystemProperties.class)) {
-      // gather the repeating system property values
-      systemProperties.addAll(
-          Arrays.asList(annotatedElement.getAnnotation(SystemProperties.class).value()));
-    }
-    if (isAnnotated(annotatedElement, SystemProperty.class)) {
-      // add the single system property value
-      systemProperties.add(annotatedElement.getAnnotation(SystemProperty.class));
-    }
-    return systemProperties;
+  private void lock(ExtensionContext extensionContext, Declarations systemProperties)
+      throws InterruptedException {
+    SortedSet<String> names = new TreeSet<>(Arrays.asList(systemProperties.names));
+    PropertyLocks.acquire(names);
+    getStore(extensionContext, this.getClass()).put(LOCKS_KEY, names);
+  }
+
+  /**
+   * A test class's system properties are set once, around all of its tests, unless they are
+   * overlaid or tests run in parallel (in which case a class which holds its properties' locks
+   * while its tests wait for other locks could deadlock with another class).
+   */
+  private boolean isPerClass(ExtensionContext extensionContext) {
+    return !isOverlaid(extensionContext) && !PropertyLocks.areRequired(extensionContext);
   }
 
-  private void set(SystemProperty systemProperty) {
-    System.setProperty(systemProperty.name(), systemProperty.value());
+  private boolean isOverlaid(ExtensionContext extensionContext) {
+    return extensionContext
+        .getConfigurationParameter(OVERLAY_PARAMETER)
+        .map(Boolean::parseBoolean)
+        .orElse(false);
+  }
+
+  /**
+   * Overlay the calling thread's view of the system properties with the given {@code
+   * systemProperties}. An overlay is only ever applied to the thread which runs a test, and only
+   * for the duration of that test. This matters because an overlay is inherited by any thread
+   * which the overlaid thread starts: if a test class's thread were overlaid then the worker
+   * threads it starts to run its tests would inherit (and keep) the overlay. A test which declares
+   * no system properties explicitly clears any overlay its thread may have inherited.
+   */
+  private void overlay(Declarations systemProperties) {
+    if (systemProperties.isEmpty()) {
+      OverlayProperties.overlay(null);
+      return;
+    }
+    Map<String, String> values = new HashMap<>();
+    for (int i = 0; i < systemProperties.size(); i++) {
+      values.put(systemProperties.names[i], systemProperties.values[i]);
+    }
+    OverlayProperties.install();
+    OverlayProperties.overlay(values);
   }
 
   private void writeRestoreContext(
       ExtensionContext extensionContext, RestoreContext restoreContext) {
-    getStore(extensionContext, this.getClass()).getOrComputeIfAbsent(KEY, key -> restoreContext);
+    // a put, since a lookup would find the enclosing test class's restore context
+    getStore(extensionContext, this.getClass()).put(KEY, restoreContext);
   }
 
   private RestoreContext readRestoreContext(ExtensionContext extensionContext) {
@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.glytching.junit.extension.folder;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+@ExtendWith(TemporaryFolderExtension.class)
+public class FolderSnapshotTest {
+
+  @Test
+  public void canSnapshotAFolder(TemporaryFolder temporaryFolder) throws IOException {
+    write(temporaryFolder.createFile("foo.txt").toPath(), "foo");
+    temporaryFolder.createDirectory("bar");
+    write(temporaryFolder.getRoot().toPath().resolve("bar/baz.txt"), "baz");
+
+    FolderSnapshot snapshot = temporaryFolder.snapshot();
+
+    assertThat(snapshot.getPaths(), contains("bar/baz.txt", "foo.txt"));
+    FolderSnapshot.Entry entry = snapshot.getEntry("foo.txt").get();
+    assertThat(entry.getSize(), is(3L));
+    // MD5 of "foo"
+    assertThat(entry.getHash(), is("acbd18db4cc2f85cedef654fccc4a4d8"));
+    assertThat(snapshot, is(temporaryFolder.snapshot()));
+  }
+
+  @Test
+  public void canSnapshotAFolderWhichWasNeverUsed(TemporaryFolder temporaryFolder)
+      throws IOException {
+    assertThat(temporaryFolder.snapshot().getEntries(), empty());
+  }
+
+  @Test
+  public void canDiffSnapshots(TemporaryFolder temporaryFolder) throws IOException {
+    Path root = temporaryFolder.getRoot().toPath();
+    write(root.resolve("unchanged.txt"), "unchanged");
+    write(root.resolve("modified.txt"), "before");
+    write(root.resolve("removed.txt"), "removed");
+
+    FolderSnapshot before = temporaryFolder.snapshot();
+
+    write(root.resolve("modified.txt"), "after!");
+    Files.delete(root.resolve("removed.txt"));
+    write(root.resolve("added.txt"), "added");
+
+    FolderDiff diff = FolderSnapshot.diff(before, temporaryFolder.snapshot());
+
+    assertThat(diff.isEmpty(), is(false));
+    assertThat(diff.getAdded(), contains("added.txt"));
+    assertThat(diff.getRemoved(), contains("removed.txt"));
+    // same size, different contents
+    assertThat(diff.getModified(), contains("modified.txt"));
+    assertThat(FolderSnapshot.diff(before, before).isEmpty(), is(true));
+  }
+
+  @Test
+  public void canSnapshotAFileWhichIsLargerThanTheMappingWindow(TemporaryFolder temporaryFolder)
+      throws IOException {
+    Path large = temporaryFolder.getRoot().toPath().resolve("large.bin");
+    try (RandomAccessFile file = new RandomAccessFile(large.toFile(), "rw")) {
+      file.setLength(ContentHasher.WINDOW_SIZE + 1);
+    }
+
+    FolderSnapshot before = temporaryFolder.snapshot();
+
+    try (RandomAccessFile file = new RandomAccessFile(large.toFile(), "rw")) {
+      // change only the last byte, which lives in the second window
+      file.seek(ContentHasher.WINDOW_SIZE);
+      file.write(1);
+    }
+
+    FolderSnapshot after = temporaryFolder.snapshot();
+    assertThat(after.getEntry("large.bin").get().getSize(), is(ContentHasher.WINDOW_SIZE + 1L));
+    assertThat(FolderSnapshot.diff(before, after).getModified(), contains("large.bin"));
+  }
+
+  private void write(Path path, String content) throws IOException {
+    Files.write(path, content.getBytes());
+  }
+}
@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.glytching.junit.extension.folder;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static java.nio.file.StandardOpenOption.WRITE;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+@ExtendWith(TemporaryFolderExtension.class)
+public class OrphanSweeperTest {
+
+  @Test
+  public void willSweepASessionWhoseOwnerIsDead(TemporaryFolder temporaryFolder)
+      throws IOException {
+    Path parent = temporaryFolder.getRoot().toPath();
+    Path session = createSession(parent, "junit-session-dead", true);
+
+    assertThat(OrphanSweeper.sweep(parent), is(1));
+    assertThat(Files.exists(session), is(false));
+  }
+
+  @Test
+  public void willNotSweepASessionWhoseOwnerIsAlive(TemporaryFolder temporaryFolder)
+      throws IOException {
+    Path parent = temporaryFolder.getRoot().toPath();
+    Path session = createSession(parent, "junit-session-alive", true);
+
+    try (FileChannel owner =
+        FileChannel.open(session.resolve(TemporaryFolderSession.OWNER_FILE), WRITE)) {
+      owner.lock();
+
+      assertThat(OrphanSweeper.sweep(parent), is(0));
+      assertThat(Files.exists(session), is(true));
+    }
+  }
+
+  @Test
+  public void willNotSweepASessionWithinItsGracePeriod(TemporaryFolder temporaryFolder)
+      throws IOException {
+    Path parent = temporaryFolder.getRoot().toPath();
+    Path session = createSession(parent, "junit-session-new", false);
+
+    assertThat(OrphanSweeper.sweep(parent), is(0));
+    assertThat(Files.exists(session), is(true));
+  }
+
+  @Test
+  public void willNotSweepADirectoryWhichIsNotASession(TemporaryFolder temporaryFolder)
+      throws IOException {
+    Path parent = temporaryFolder.getRoot().toPath();
+    Path directory = createSession(parent, "not-a-session", true);
+
+    assertThat(OrphanSweeper.sweep(parent), is(0));
+    assertThat(Files.exists(directory), is(true));
+  }
+
+  @Test
+  public void willNotSweepTheCurrentSession() {
+    Path session = TemporaryFolderSession.directory();
+
+    assertThat(OrphanSweeper.sweep(session.getParent()) >= 0, is(true));
+    assertThat(Files.exists(session), is(true));
+  }
+
+  private Path createSession(Path parent, String name, boolean expired) throws IOException {
+    Path session = Files.createDirectory(parent.resolve(name));
+    Files.write(session.resolve("foo.txt"), "foo".getBytes());
+    Path owner = Files.write(session.resolve(TemporaryFolderSession.OWNER_FILE), new byte[0]);
+    if (expired) {
+      Files.setLastModifiedTime(
+          owner,
+          FileTime.fromMillis(
+              System.currentTimeMillis() - 2 * OrphanSweeper.GRACE_PERIOD_MILLIS));
+    }
+    return session;
+  }
+}
@@ -0,0 +1,85 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.glytching.junit.extension.folder;
+
+import io.github.glytching.junit.extension.folder.TempFolder.Scope;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.io.File;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+@ExtendWith(TemporaryFolderExtension.class)
+public class TemporaryFolderExtensionFieldTest {
+
+  // gather the root folders supplied to each test to facilitate assertions on how (and whether)
+  // each scope is shared across tests
+  private static final Set<File> methodRoots = new HashSet<>();
+  private static final Set<File> classRoots = new HashSet<>();
+  private static final Set<File> suiteRoots = new HashSet<>();
+
+  @TempFolder(scope = Scope.CLASS)
+  private static TemporaryFolder STATIC_CLASS_FOLDER;
+
+  @TempFolder private TemporaryFolder methodFolder;
+
+  @TempFolder(scope = Scope.CLASS)
+  private TemporaryFolder classFolder;
+
+  @TempFolder(scope = Scope.SUITE)
+  private TemporaryFolder suiteFolder;
+
+  @BeforeAll
+  public static void staticClassFolderIsAvailableBeforeAll() {
+    assertThat(STATIC_CLASS_FOLDER, notNullValue());
+    assertThat(STATIC_CLASS_FOLDER.getRoot().exists(), is(true));
+  }
+
+  @AfterAll
+  public static void methodFoldersAreDeletedAndWiderScopesSurvive() {
+    assertThat(methodRoots.size(), is(3));
+    methodRoots.forEach(root -> assertThat(root.exists(), is(false)));
+
+    assertThat(classRoots.size(), is(1));
+    classRoots.forEach(root -> assertThat(root.exists(), is(true)));
+
+    assertThat(suiteRoots.size(), is(1));
+    suiteRoots.forEach(root -> assertThat(root.exists(), is(true)));
+  }
+
+  @RepeatedTest(3)
+  public void canInjectTemporaryFoldersIntoFields() {
+    assertThat(methodFolder.getRoot().exists(), is(true));
+    assertThat(classFolder.getRoot().exists(), is(true));
+    assertThat(suiteFolder.getRoot().exists(), is(true));
+
+    // each field has its own folder, apart from the suite folder which is shared by all fields
+    // with that scope
+    assertThat(methodFolder.getRoot(), not(is(classFolder.getRoot())));
+    assertThat(classFolder.getRoot(), not(is(STATIC_CLASS_FOLDER.getRoot())));
+
+    methodRoots.add(methodFolder.getRoot());
+    classRoots.add(classFolder.getRoot());
+    suiteRoots.add(suiteFolder.getRoot());
+  }
+}
@@ -0,0 +1,292 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.glytching.junit.extension.folder;
+
+import io.github.glytching.junit.extension.util.RecordingExecutionListener;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.platform.engine.TestExecutionResult.Status;
+import org.junit.platform.engine.reporting.ReportEntry;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import static io.github.glytching.junit.extension.util.ExecutionEvent.Type.REPORTING_ENTRY_PUBLISHED;
+import static io.github.glytching.junit.extension.util.ExtensionTester.execute;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.platform.engine.TestExecutionResult.Status.FAILED;
+import static org.junit.platform.engine.TestExecutionResult.Status.SUCCESSFUL;
+import static org.junit.platform.engine.discovery.DiscoverySelectors.selectClass;
+
+/**
+ * Tests the {@link TemporaryFolderExtension} <em>from the outside</em>. Some of the extension's
+ * behaviours (e.g. failing a test which exceeds its quota) happen after the test method has
+ * completed so we have to run the test and then assert against what the engine did.
+ *
+ * <p>The test cases used here are static nested classes so that they are not run by the normal
+ * test flow.
+ */
+public class TemporaryFolderExtensionMetaTest {
+
+  @Test
+  public void willReportUsageAndFailATestWhichExceedsItsQuota() {
+    RecordingExecutionListener listener = execute(selectClass(QuotaTestCase.class));
+
+    assertThat(countFinishedTests(listener, SUCCESSFUL), is(1L));
+    assertThat(countFinishedTests(listener, FAILED), is(1L));
+
+    List<Map<String, String>> reportEntries =
+        listener
+            .getEventsByType(REPORTING_ENTRY_PUBLISHED)
+            .map(event -> event.getPayload(ReportEntry.class).get().getKeyValuePairs())
+            .collect(Collectors.toList());
+    assertThat(reportEntries.size(), is(2));
+    assertThat(reportEntries, hasItem(hasEntry(TemporaryFolderExtension.REPORT_FILES, "1")));
+    assertThat(reportEntries, hasItem(hasEntry(TemporaryFolderExtension.REPORT_FILES, "2")));
+    assertThat(reportEntries, hasItem(hasEntry(TemporaryFolderExtension.REPORT_BYTES, "6")));
+  }
+
+  @Test
+  public void canCreateAndDestroyFoldersFromTestsRunningInParallel() {
+    Map<String, String> configuration = new HashMap<>();
+    configuration.put("junit.jupiter.execution.parallel.enabled", "true");
+    configuration.put("junit.jupiter.execution.parallel.mode.default", "concurrent");
+    configuration.put("junit.jupiter.execution.parallel.config.strategy", "fixed");
+    configuration.put("junit.jupiter.execution.parallel.config.fixed.parallelism", "4");
+
+    RecordingExecutionListener listener =
+        execute(configuration, selectClass(ParallelTestCase.class));
+
+    assertThat(countFinishedTests(listener, SUCCESSFUL), is(8L));
+    assertThat(countFinishedTests(listener, FAILED), is(0L));
+
+    // every folder was distinct, was created in a worker's shard and has since been deleted
+    assertThat(
+        ParallelTestCase.roots.size(), is(8 * (ParallelTestCase.FOLDERS_PER_TEST + 1)));
+    for (Path root : ParallelTestCase.roots) {
+      assertThat(root.getParent().getFileName().toString(), startsWith("w"));
+      assertThat(root.getParent().getParent(), is(TemporaryFolderSession.directory()));
+      assertThat(Files.exists(root), is(false));
+    }
+    assertThat(ParallelTestCase.workers, hasItem(true));
+  }
+
+  @Test
+  public void willArchiveTheFoldersOfAFailedTest() throws IOException {
+    Path archiveDirectory = Paths.get(RetentionTestCase.ARCHIVE_DIRECTORY);
+    try {
+      RecordingExecutionListener listener = execute(selectClass(RetentionTestCase.class));
+
+      assertThat(countFinishedTests(listener, SUCCESSFUL), is(1L));
+      assertThat(countFinishedTests(listener, FAILED), is(1L));
+
+      // one for the failed test's folder and one for the class's shared folder
+      List<String> archives =
+          listener
+              .getEventsByType(REPORTING_ENTRY_PUBLISHED)
+              .map(event -> event.getPayload(ReportEntry.class).get().getKeyValuePairs())
+              .filter(entries -> entries.containsKey(TemporaryFolderExtension.REPORT_ARCHIVE))
+              .map(entries -> entries.get(TemporaryFolderExtension.REPORT_ARCHIVE))
+              .collect(Collectors.toList());
+      assertThat(archives.size(), is(2));
+
+      // the '$' in the nested class's name is not a safe file name character
+      String name = RetentionTestCase.class.getName().replace('$', '_');
+
+      Path testArchive = archiveDirectory.resolve(name + ".fails.zip");
+      assertThat(archives, hasItem(testArchive.toString()));
+      List<String> testEntries = entryNames(testArchive);
+      assertThat(testEntries, containsInAnyOrder("foo.txt", "bar/", "bar/baz.txt"));
+      // walk order is platform specific but a directory must precede its contents
+      assertThat(testEntries.indexOf("bar/") < testEntries.indexOf("bar/baz.txt"), is(true));
+
+      Path classArchive = archiveDirectory.resolve(name + ".zip");
+      assertThat(archives, hasItem(classArchive.toString()));
+      assertThat(entryNames(classArchive), containsInAnyOrder("fails.txt", "passes.txt"));
+    } finally {
+      TemporaryFolder.delete(archiveDirectory);
+    }
+  }
+
+  @Test
+  public void willArchiveTheFoldersOfATestWhichExceedsItsQuota() throws IOException {
+    Path archiveDirectory = Paths.get(RetainedQuotaTestCase.ARCHIVE_DIRECTORY);
+    try {
+      RecordingExecutionListener listener = execute(selectClass(RetainedQuotaTestCase.class));
+
+      assertThat(countFinishedTests(listener, FAILED), is(1L));
+
+      String name = RetainedQuotaTestCase.class.getName().replace('$', '_');
+      Path testArchive = archiveDirectory.resolve(name + ".exceedsQuota.zip");
+      assertThat(entryNames(testArchive), containsInAnyOrder("foo.txt", "bar.txt"));
+    } finally {
+      TemporaryFolder.delete(archiveDirectory);
+    }
+  }
+
+  private List<String> entryNames(Path archive) throws IOException {
+    try (ZipFile zipFile = new ZipFile(archive.toFile())) {
+      return Collections.list(zipFile.entries())
+          .stream()
+          .map(ZipEntry::getName)
+          .collect(Collectors.toList());
+    }
+  }
+
+  private long countFinishedTests(RecordingExecutionListener listener, Status status) {
+    return listener
+        .getFinishedEventsByStatus(status)
+        .filter(event -> event.getTestDescriptor().isTest())
+        .count();
+  }
+
+  @ExtendWith(TemporaryFolderExtension.class)
+  @TemporaryFolderQuota(maxFiles = 1)
+  public static class QuotaTestCase {
+
+    @Test
+    public void withinQuota(TemporaryFolder temporaryFolder) throws IOException {
+      temporaryFolder.createFile("foo.txt");
+    }
+
+    @Test
+    public void exceedsQuota(TemporaryFolder temporaryFolder) throws IOException {
+      temporaryFolder.createFile("foo.txt");
+      temporaryFolder.createMappedFile("bar.bin", 6);
+    }
+  }
+
+  @ExtendWith(TemporaryFolderExtension.class)
+  public static class ParallelTestCase {
+    static final int FOLDERS_PER_TEST = 50;
+
+    static final Set<Path> roots = ConcurrentHashMap.newKeySet();
+    static final Set<Boolean> workers = ConcurrentHashMap.newKeySet();
+
+    // shared by every test in this class, so written to concurrently
+    @TempFolder(scope = TempFolder.Scope.CLASS)
+    private static TemporaryFolder sharedFolder;
+
+    @Test
+    public void one(TemporaryFolder temporaryFolder) throws IOException {
+      stress("one", temporaryFolder);
+    }
+
+    @Test
+    public void two(TemporaryFolder temporaryFolder) throws IOException {
+      stress("two", temporaryFolder);
+    }
+
+    @Test
+    public void three(TemporaryFolder temporaryFolder) throws IOException {
+      stress("three", temporaryFolder);
+    }
+
+    @Test
+    public void four(TemporaryFolder temporaryFolder) throws IOException {
+      stress("four", temporaryFolder);
+    }
+
+    @Test
+    public void five(TemporaryFolder temporaryFolder) throws IOException {
+      stress("five", temporaryFolder);
+    }
+
+    @Test
+    public void six(TemporaryFolder temporaryFolder) throws IOException {
+      stress("six", temporaryFolder);
+    }
+
+    @Test
+    public void seven(TemporaryFolder temporaryFolder) throws IOException {
+      stress("seven", temporaryFolder);
+    }
+
+    @Test
+    public void eight(TemporaryFolder temporaryFolder) throws IOException {
+      stress("eight", temporaryFolder);
+    }
+
+    private void stress(String name, TemporaryFolder temporaryFolder) throws IOException {
+      workers.add(Thread.currentThread() instanceof ForkJoinWorkerThread);
+      roots.add(temporaryFolder.getRoot().toPath());
+
+      for (int i = 0; i < FOLDERS_PER_TEST; i++) {
+        TemporaryFolder folder = new TemporaryFolder();
+        File file = folder.createFile(name + i);
+        Files.write(file.toPath(), name.getBytes());
+        assertThat(new String(Files.readAllBytes(file.toPath())), is(name));
+        roots.add(folder.getRoot().toPath());
+        folder.destroy();
+
+        sharedFolder.createFile(name + i);
+      }
+      assertThat(temporaryFolder.createFile(name).exists(), is(true));
+    }
+  }
+
+  @ExtendWith(TemporaryFolderExtension.class)
+  @TemporaryFolderRetention(directory = RetentionTestCase.ARCHIVE_DIRECTORY)
+  public static class RetentionTestCase {
+    static final String ARCHIVE_DIRECTORY = "target/temporary-folder-retention-test";
+
+    @TempFolder(scope = TempFolder.Scope.CLASS)
+    private static TemporaryFolder sharedFolder;
+
+    @Test
+    public void passes(TemporaryFolder temporaryFolder) throws IOException {
+      sharedFolder.createFile("passes.txt");
+      temporaryFolder.createFile("foo.txt");
+    }
+
+    @Test
+    public void fails(TemporaryFolder temporaryFolder) throws IOException {
+      sharedFolder.createFile("fails.txt");
+      temporaryFolder.createFile("foo.txt");
+      temporaryFolder.createDirectory("bar");
+      Files.write(temporaryFolder.getRoot().toPath().resolve("bar/baz.txt"), "baz".getBytes());
+      throw new AssertionError("fails");
+    }
+  }
+
+  @ExtendWith(TemporaryFolderExtension.class)
+  @TemporaryFolderQuota(maxFiles = 1)
+  @TemporaryFolderRetention(directory = RetainedQuotaTestCase.ARCHIVE_DIRECTORY)
+  public static class RetainedQuotaTestCase {
+    static final String ARCHIVE_DIRECTORY = "target/temporary-folder-retained-quota-test";
+
+    @Test
+    public void exceedsQuota(TemporaryFolder temporaryFolder) throws IOException {
+      temporaryFolder.createFile("foo.txt");
+      temporaryFolder.createFile("bar.txt");
+    }
+  }
+}
@@ -0,0 +1,162 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.glytching.junit.extension.folder;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermissions;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.singletonMap;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+@ExtendWith(TemporaryFolderExtension.class)
+@TemporaryFolderTemplate("folder/template")
+public class TemporaryFolderExtensionTemplateTest {
+
+  @Test
+  public void canMaterializeAClassLevelTemplate(TemporaryFolder temporaryFolder)
+      throws IOException {
+    assertThat(read(temporaryFolder, "foo.txt"), is("foo"));
+    assertThat(read(temporaryFolder, "nested/bar.txt"), is("bar"));
+  }
+
+  @Test
+  public void willNotModifyTheTemplateWhenTheCopyIsModified(TemporaryFolder temporaryFolder)
+      throws Exception {
+    Path copy = temporaryFolder.getRoot().toPath().resolve("foo.txt");
+    Files.write(copy, "changed".getBytes(UTF_8));
+
+    Path template = Paths.get(getClass().getClassLoader().getResource("folder/template").toURI());
+    assertThat(read(temporaryFolder.getRoot().toPath(), "foo.txt"), is("changed"));
+    assertThat(read(template, "foo.txt"), is("foo"));
+  }
+
+  @Test
+  @TemporaryFolderTemplate(value = "folder/template/nested", link = true)
+  public void canMaterializeAMethodLevelTemplateUsingLinks(TemporaryFolder temporaryFolder)
+      throws Exception {
+    assertThat(read(temporaryFolder, "bar.txt"), is("bar"));
+    assertThat(new File(temporaryFolder.getRoot(), "foo.txt").exists(), is(false));
+
+    assumeTrue(isReadOnlyEnforced(temporaryFolder), "Links need enforceable read-only files");
+    Path link = temporaryFolder.getRoot().toPath().resolve("bar.txt");
+    Path another = temporaryFolder.createDirectory("another").toPath();
+    FolderTemplates.materialize(linkedTemplate(), another);
+
+    // both are links to the same read-only file
+    assertThat(fileKey(link), notNullValue());
+    assertThat(fileKey(another.resolve("bar.txt")), is(fileKey(link)));
+    assertThat(Files.isWritable(link), is(false));
+  }
+
+  @Test
+  @TemporaryFolderTemplate(value = "folder/template/nested", link = true)
+  public void willNotModifyTheTemplateWhenALinkedFileIsModifiedInPlace(
+      TemporaryFolder temporaryFolder) throws Exception {
+    Path link = temporaryFolder.getRoot().toPath().resolve("bar.txt");
+    try {
+      Files.write(link, "changed".getBytes(UTF_8));
+    } catch (AccessDeniedException ex) {
+      // a linked file is read-only, if it could be written to then it was copied
+    }
+
+    Path another = temporaryFolder.createDirectory("another").toPath();
+    FolderTemplates.materialize(linkedTemplate(), another);
+    assertThat(read(another, "bar.txt"), is("bar"));
+
+    Path template =
+        Paths.get(getClass().getClassLoader().getResource("folder/template/nested").toURI());
+    assertThat(read(template, "bar.txt"), is("bar"));
+  }
+
+  @Test
+  public void canMaterializeATemplateFromAJarWhichIsAlreadyOpen(TemporaryFolder temporaryFolder)
+      throws Exception {
+    Path jarFile = temporaryFolder.getRoot().toPath().resolve("t.jar");
+    URI jarUri = URI.create("jar:" + jarFile.toUri());
+    try (FileSystem jar = FileSystems.newFileSystem(jarUri, singletonMap("create", "true"))) {
+      Files.createDirectories(jar.getPath("jar/template"));
+      Files.write(jar.getPath("jar/template/baz.txt"), "baz".getBytes(UTF_8));
+    }
+
+    ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+    try (FileSystem jar = FileSystems.newFileSystem(jarUri, emptyMap());
+        URLClassLoader classLoader =
+            new URLClassLoader(new URL[] {jarFile.toUri().toURL()}, null)) {
+      Thread.currentThread().setContextClassLoader(classLoader);
+      Path target = temporaryFolder.createDirectory("target").toPath();
+
+      FolderTemplates.materialize(
+          JarTemplate.class.getAnnotation(TemporaryFolderTemplate.class), target);
+
+      assertThat(read(target, "baz.txt"), is("baz"));
+      assertThat(jar.isOpen(), is(true));
+    } finally {
+      Thread.currentThread().setContextClassLoader(contextClassLoader);
+    }
+  }
+
+  private TemporaryFolderTemplate linkedTemplate() throws NoSuchMethodException {
+    return getClass()
+        .getMethod("canMaterializeAMethodLevelTemplateUsingLinks", TemporaryFolder.class)
+        .getAnnotation(TemporaryFolderTemplate.class);
+  }
+
+  /** A privileged user, for example, can write to a read-only file. */
+  private boolean isReadOnlyEnforced(TemporaryFolder temporaryFolder) throws IOException {
+    Path file = temporaryFolder.createFile("read-only.txt").toPath();
+    if (Files.getFileAttributeView(file, PosixFileAttributeView.class) == null) {
+      return false;
+    }
+    Files.setPosixFilePermissions(file, PosixFilePermissions.fromString("r--r--r--"));
+    return !Files.isWritable(file);
+  }
+
+  private Object fileKey(Path path) throws IOException {
+    return Files.readAttributes(path, BasicFileAttributes.class).fileKey();
+  }
+
+  private String read(TemporaryFolder temporaryFolder, String fileName) throws IOException {
+    return read(temporaryFolder.getRoot().toPath(), fileName);
+  }
+
+  private String read(Path root, String fileName) throws IOException {
+    return new String(Files.readAllBytes(root.resolve(fileName)), UTF_8);
+  }
+
+  @TemporaryFolderTemplate("jar/template")
+  private static class JarTemplate {}
+}
@@ -2,9 +2,28 @@ package io.github.glytching.junit.extension.folder;
 
 import org.junit.jupiter.api.Test;
 
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
 
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
 public class TemporaryFolderTest {
 
@@ -18,4 +37,179 @@ public class TemporaryFolderTest {
         TemporaryFolderException.class,
         () -> temporaryFolder.createDirectory(invalidDirectoryName));
   }
+
+  @Test
+  public void canCreateAMappedFile() throws IOException {
+    TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    long size = 64 * 1024 * 1024;
+    MappedByteBuffer buffer = temporaryFolder.createMappedFile("foo.bin", size);
+
+    assertThat((long) buffer.capacity(), is(size));
+    File file = new File(temporaryFolder.getRoot(), "foo.bin");
+    assertThat(file.length(), is(size));
+
+    buffer.put(buffer.capacity() - 1, (byte) 7);
+    assertThat(buffer.get(buffer.capacity() - 1), is((byte) 7));
+
+    temporaryFolder.destroy();
+
+    assertThat(file.exists(), is(false));
+    assertThat(temporaryFolder.getRoot().exists(), is(false));
+  }
+
+  @Test
+  public void willThrowAnExceptionIfTheGivenMappedFileSizeIsTooLarge() throws IOException {
+    TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> temporaryFolder.createMappedFile("foo.bin", Integer.MAX_VALUE + 1L));
+
+    temporaryFolder.destroy();
+  }
+
+  @Test
+  public void willNotCreateTheRootFolderUntilItIsUsed() throws IOException {
+    List<Path> createdRoots = new CopyOnWriteArrayList<>();
+    TemporaryFolder temporaryFolder = new TemporaryFolder(createdRoots::add);
+
+    assertThat(temporaryFolder.getUsage().getFiles(), is(0L));
+    temporaryFolder.destroy();
+
+    assertThat(createdRoots.isEmpty(), is(true));
+  }
+
+  @Test
+  public void willCreateTheRootFolderOnceOnFirstUse() throws IOException {
+    List<Path> createdRoots = new CopyOnWriteArrayList<>();
+    TemporaryFolder temporaryFolder = new TemporaryFolder(createdRoots::add);
+
+    File file = temporaryFolder.createFile("foo.txt");
+    File root = temporaryFolder.getRoot();
+
+    assertThat(createdRoots.size(), is(1));
+    assertThat(createdRoots.get(0).toFile(), is(root));
+    assertThat(file.getParentFile(), is(root));
+
+    temporaryFolder.destroy();
+
+    assertThat(root.exists(), is(false));
+  }
+
+  @Test
+  public void canCreateTheRootFolderWithinTheSessionDirectory() throws IOException {
+    TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    Path shard = temporaryFolder.getRoot().toPath().getParent();
+    assertThat(shard, is(TemporaryFolderSession.workerDirectory()));
+    assertThat(shard.getParent(), is(TemporaryFolderSession.directory()));
+
+    temporaryFolder.destroy();
+  }
+
+  @Test
+  public void canFindTheFilesWhichAreStillOpenWithinTheRootFolder() throws IOException {
+    assumeTrue(Files.isDirectory(Paths.get("/proc/self/fd")), "Requires /proc/self/fd");
+
+    TemporaryFolder temporaryFolder = new TemporaryFolder();
+    File file = temporaryFolder.createFile("foo.txt");
+
+    try (FileInputStream in = new FileInputStream(file)) {
+      assertThat(OpenFiles.within(temporaryFolder.getRoot().toPath()), hasItem(file.toPath()));
+    }
+    assertThat(OpenFiles.within(temporaryFolder.getRoot().toPath()), not(hasItem(file.toPath())));
+
+    temporaryFolder.destroy();
+  }
+
+  @Test
+  public void willWarnOfFilesWhichAreStillOpenWhenDestroyed() throws IOException {
+    assumeTrue(Files.isDirectory(Paths.get("/proc/self/fd")), "Requires /proc/self/fd");
+
+    List<String> warnings = new CopyOnWriteArrayList<>();
+    Handler handler =
+        new Handler() {
+          @Override
+          public void publish(LogRecord record) {
+            if (record.getLevel() == Level.WARNING) {
+              warnings.add(record.getMessage());
+            }
+          }
+
+          @Override
+          public void flush() {}
+
+          @Override
+          public void close() {}
+        };
+    Logger logger = Logger.getLogger(TemporaryFolder.class.getName());
+    logger.addHandler(handler);
+
+    TemporaryFolder temporaryFolder = new TemporaryFolder();
+    File file = temporaryFolder.createFile("foo.txt");
+    try (FileInputStream in = new FileInputStream(file)) {
+      try {
+        temporaryFolder.destroy();
+      } catch (IOException ex) {
+        // some platforms will not delete an open file, either way the open file is reported
+      }
+    } finally {
+      logger.removeHandler(handler);
+    }
+
+    assertThat(warnings, hasItem(containsString(file.getPath())));
+  }
+
+  @Test
+  public void canCreateASparseFile() throws IOException {
+    TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    long size = 4L * 1024 * 1024 * 1024;
+    File file = temporaryFolder.createSparseFile("foo.bin", size);
+
+    assertThat(file.length(), is(size));
+    try (RandomAccessFile in = new RandomAccessFile(file, "r")) {
+      assertThat(in.read(), is(0));
+      in.seek(size - 1);
+      assertThat(in.read(), is(0));
+    }
+
+    temporaryFolder.destroy();
+  }
+
+  @Test
+  public void canPreallocateAFile() throws IOException {
+    TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    // not a multiple of the chunk size
+    long size = 3 * 1024 * 1024 + 7;
+    File file = temporaryFolder.preallocate("foo.bin", size);
+
+    assertThat(file.length(), is(size));
+    assertThat(temporaryFolder.getUsage().getBytes(), is(size));
+
+    temporaryFolder.destroy();
+  }
+
+  @Test
+  public void canCreateEmptySparseAndPreallocatedFiles() throws IOException {
+    TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    assertThat(temporaryFolder.createSparseFile("foo.bin", 0).length(), is(0L));
+    assertThat(temporaryFolder.preallocate("bar.bin", 0).length(), is(0L));
+
+    temporaryFolder.destroy();
+  }
+
+  @Test
+  public void willThrowAnExceptionIfTheGivenFileSizeIsNegative() throws IOException {
+    TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    assertThrows(
+        IllegalArgumentException.class, () -> temporaryFolder.createSparseFile("foo.bin", -1));
+    assertThrows(IllegalArgumentException.class, () -> temporaryFolder.preallocate("foo.bin", -1));
+
+    temporaryFolder.destroy();
+  }
 }
@@ -0,0 +1,43 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.glytching.junit.extension.random;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class BulkRandomTest {
+
+  @Test
+  public void willFillBytesInLittleEndianOrder() {
+    BulkRandom expected = new BulkRandom(42);
+    ByteBuffer bytes =
+        ByteBuffer.wrap(new BulkRandom(42).bytes(2 * Long.BYTES + 3))
+            .order(ByteOrder.LITTLE_ENDIAN);
+
+    assertThat(bytes.getLong(), is(expected.nextLong()));
+    assertThat(bytes.getLong(), is(expected.nextLong()));
+    long tail = expected.nextLong();
+    for (int i = 0; i < 3; i++) {
+      assertThat(bytes.get(), is((byte) (tail >>> (8 * i))));
+    }
+  }
+}
@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.glytching.junit.extension.random;
+
+import io.github.glytching.junit.extension.folder.TemporaryFolder;
+import io.github.glytching.junit.extension.folder.TemporaryFolderExtension;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.extension.ExtensionConfigurationException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@ExtendWith({RandomBeansExtension.class, TemporaryFolderExtension.class})
+public class RandomBeansExtensionCacheTest {
+
+  @Test
+  public void canInjectCachedValues(
+      @Random(seed = 42, cached = true, size = 5, type = String.class) List<String> anyStrings,
+      @Random(seed = 42, cached = true, size = 5, type = String.class) List<String> sameStrings,
+      @Random(seed = 42, cached = true, size = 5) long[] anyLongs) {
+    assertThat(anyStrings.size(), is(5));
+    assertThat(sameStrings, is(anyStrings));
+    // each request is given its own copy
+    assertThat(sameStrings, not(sameInstance(anyStrings)));
+    assertThat(anyLongs.length, is(5));
+  }
+
+  @Test
+  public void willGenerateOnceAndThenReload(TemporaryFolder temporaryFolder) {
+    FixtureCache cache = new FixtureCache(temporaryFolder.getRoot().toPath());
+    AtomicInteger generated = new AtomicInteger();
+
+    Object first = cache.get("key", () -> generate(generated));
+    Object second = cache.get("key", () -> generate(generated));
+
+    assertThat(generated.get(), is(1));
+    assertThat(second, is(first));
+    assertThat(second, not(sameInstance(first)));
+  }
+
+  @Test
+  public void willRegenerateAnUnreadableValue(TemporaryFolder temporaryFolder) throws IOException {
+    Path directory = temporaryFolder.getRoot().toPath();
+    FixtureCache cache = new FixtureCache(directory);
+    AtomicInteger generated = new AtomicInteger();
+    cache.get("key", () -> generate(generated));
+
+    try (Stream<Path> files = Files.list(directory)) {
+      Path file = files.findFirst().get();
+      Files.write(file, "corrupt".getBytes());
+    }
+
+    assertThat(cache.get("key", () -> generate(generated)), is(Arrays.asList("a", "b")));
+    assertThat(generated.get(), is(2));
+    // the unreadable file was replaced
+    cache.get("key", () -> generate(generated));
+    assertThat(generated.get(), is(2));
+  }
+
+  @Test
+  public void cannotCacheAValueWhichIsNotSerializable(TemporaryFolder temporaryFolder) {
+    FixtureCache cache = new FixtureCache(temporaryFolder.getRoot().toPath());
+
+    assertThrows(ExtensionConfigurationException.class, () -> cache.get("key", Object::new));
+  }
+
+  private Object generate(AtomicInteger generated) {
+    generated.incrementAndGet();
+    return new ArrayList<>(Arrays.asList("a", "b"));
+  }
+}
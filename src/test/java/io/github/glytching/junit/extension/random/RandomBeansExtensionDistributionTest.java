@@ -0,0 +1,90 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.glytching.junit.extension.random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.extension.ExtensionConfigurationException;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+import static io.github.glytching.junit.extension.random.Distribution.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@ExtendWith(RandomBeansExtension.class)
+public class RandomBeansExtensionDistributionTest {
+
+  @Test
+  public void canInjectZipfianValues(
+      @Random(size = 10_000, distribution = ZIPFIAN, range = 100) long[] anyKeys) {
+    long[] counts = new long[100];
+    for (long key : anyKeys) {
+      assertThat(key, allOf(greaterThanOrEqualTo(0L), lessThan(100L)));
+      counts[(int) key]++;
+    }
+    // roughly 19%, 10% and 0.4% of keys respectively
+    assertThat(counts[0], greaterThan(counts[1]));
+    assertThat(counts[1], greaterThan(counts[50]));
+  }
+
+  @Test
+  public void canInjectGaussianValues(
+      @Random(size = 10_000, distribution = GAUSSIAN, range = 1000) double[] anyValues) {
+    double mean = Arrays.stream(anyValues).average().getAsDouble();
+    // the standard error of the mean is below 2
+    assertThat(mean, closeTo(500, 20));
+  }
+
+  @Test
+  public void canInjectEdgeCases(
+      @Random(size = 1000, distribution = EDGE_CASES) int[] anyInts,
+      @Random(size = 1000, distribution = EDGE_CASES) double[] anyDoubles) {
+    assertThat(Arrays.stream(anyInts).anyMatch(i -> i == Integer.MIN_VALUE), is(true));
+    assertThat(Arrays.stream(anyInts).anyMatch(i -> i == Integer.MAX_VALUE), is(true));
+    assertThat(Arrays.stream(anyDoubles).anyMatch(Double::isNaN), is(true));
+  }
+
+  @Test
+  public void canInjectDistributedScalarsAndStreams(
+      @Random(distribution = ZIPFIAN, range = 10) Integer anyInteger,
+      @Random(distribution = ZIPFIAN, range = 10) long anyLong,
+      @Random(size = 5, distribution = GAUSSIAN, range = 10) IntStream anyInts) {
+    assertThat(anyInteger, allOf(greaterThanOrEqualTo(0), lessThan(10)));
+    assertThat(anyLong, allOf(greaterThanOrEqualTo(0L), lessThan(10L)));
+    assertThat(anyInts.count(), is(5L));
+  }
+
+  @Test
+  public void canSampleAVeryLargeZipfianRange() {
+    DistributionSampler sampler = DistributionSampler.of(ZIPFIAN, Long.MAX_VALUE / 2);
+    java.util.Random random = new java.util.Random(42);
+
+    for (int i = 0; i < 1000; i++) {
+      assertThat(
+          sampler.nextLong(random),
+          allOf(greaterThanOrEqualTo(0L), lessThan(Long.MAX_VALUE / 2)));
+    }
+  }
+
+  @Test
+  public void cannotSampleAnEmptyRange() {
+    assertThrows(ExtensionConfigurationException.class, () -> DistributionSampler.of(ZIPFIAN, 0));
+  }
+}
@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.glytching.junit.extension.random;
+
+import io.github.benas.randombeans.EnhancedRandomBuilder;
+import io.github.benas.randombeans.api.EnhancedRandom;
+import io.github.benas.randombeans.api.Randomizer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+@ExtendWith(RandomBeansExtension.class)
+public class RandomBeansExtensionGeneratedRandomizerTest {
+
+  @Random private RandomizableDomainObject anyRandomizableDomainObject;
+
+  @Test
+  public void willGenerateARandomizerForARandomizableType() {
+    GeneratedRandomizer<?> randomizer = GeneratedRandomizers.find(RandomizableDomainObject.class);
+
+    assertThat(randomizer, notNullValue());
+    assertThat(
+        randomizer.getClass().getName(),
+        is(RandomizableDomainObject.class.getName() + GeneratedRandomizers.SUFFIX));
+    assertThat(GeneratedRandomizers.find(DomainObject.class), nullValue());
+  }
+
+  @Test
+  public void canInjectAFieldUsingTheGeneratedRandomizer() {
+    assertThatIsGenerated(anyRandomizableDomainObject);
+  }
+
+  @Test
+  public void canInjectAParameterUsingTheGeneratedRandomizer(
+      @Random RandomizableDomainObject randomizableDomainObject) {
+    assertThatIsGenerated(randomizableDomainObject);
+  }
+
+  @Test
+  public void canInjectACollectionUsingTheGeneratedRandomizer(
+      @Random(size = 3, type = RandomizableDomainObject.class)
+          List<RandomizableDomainObject> randomizableDomainObjects) {
+    assertThat(randomizableDomainObjects.size(), is(3));
+    randomizableDomainObjects.forEach(this::assertThatIsGenerated);
+  }
+
+  @Test
+  public void willUseRandomBeansWhenFieldsAreExcluded(
+      @Random(excludes = "name") RandomizableDomainObject randomizableDomainObject) {
+    assertThat(randomizableDomainObject.name, nullValue());
+    assertThat(randomizableDomainObject.getOrigin(), is("constructor"));
+    assertThat(randomizableDomainObject.getNestedDomainObject(), notNullValue());
+  }
+
+  @Test
+  public void willGenerateTheSameValuesFromTheSameSeed() {
+    RandomizableDomainObject first = seeded(42);
+    RandomizableDomainObject second = seeded(42);
+
+    assertThat(first.name, is(second.name));
+    assertThat(first.getId(), is(second.getId()));
+    assertThat(first.getWotsits(), is(second.getWotsits()));
+  }
+
+  @Test
+  public void willUseRandomBeansWhenTheRandomWasSuppliedByTheCaller() {
+    EnhancedRandom custom =
+        EnhancedRandomBuilder.aNewEnhancedRandomBuilder()
+            .randomize(String.class, (Randomizer<String>) () -> "custom")
+            .build();
+
+    RandomizableDomainObject randomizableDomainObject =
+        (RandomizableDomainObject)
+            RandomSource.shared(custom).nextObject(RandomizableDomainObject.class);
+
+    assertThat(randomizableDomainObject.name, is("custom"));
+    assertThat(randomizableDomainObject.getOrigin(), is("constructor"));
+  }
+
+  private RandomizableDomainObject seeded(long seed) {
+    return (RandomizableDomainObject)
+        RandomSource.shared(EnhancedRandomBuilder.aNewEnhancedRandomBuilder().seed(seed).build())
+            .withGeneratedRandomizers()
+            .nextObject(RandomizableDomainObject.class);
+  }
+
+  private void assertThatIsGenerated(RandomizableDomainObject randomizableDomainObject) {
+    assertThat(randomizableDomainObject.name, notNullValue());
+    assertThat(randomizableDomainObject.count, notNullValue());
+    assertThat(randomizableDomainObject.values, not(empty()));
+    assertThat(randomizableDomainObject.getNestedDomainObject(), notNullValue());
+    assertThat(randomizableDomainObject.getNestedDomainObject().getAddress(), notNullValue());
+    assertThat(randomizableDomainObject.getWotsits(), not(empty()));
+    // random-beans would not have overridden the value initialised by the constructor
+    assertThat(randomizableDomainObject.getOrigin(), not("constructor"));
+  }
+}
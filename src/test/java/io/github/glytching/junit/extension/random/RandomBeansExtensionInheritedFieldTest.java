@@ -0,0 +1,53 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.glytching.junit.extension.random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+@ExtendWith(RandomBeansExtension.class)
+public class RandomBeansExtensionInheritedFieldTest extends AbstractRandomBeansExtensionFieldTest {
+
+  @Random private String anyString;
+
+  @Random private int anyInt;
+
+  @Test
+  public void canInjectDeclaredFields() {
+    assertThat(anyString, notNullValue());
+  }
+
+  @Test
+  public void canInjectInheritedFields() {
+    assertThat(anyParentString, notNullValue());
+    assertThat(getAnyPrivateParentString(), notNullValue());
+    assertThat(anyParentDomainObject, notNullValue());
+    assertThat(anyParentDomainObject.getName(), notNullValue());
+    assertThat(anyParentStrings.size(), is(3));
+    assertThat(anyParentStaticString, notNullValue());
+  }
+
+  @Test
+  public void canInjectFieldsHiddenBySubclasses() {
+    assertThat(anyInt, not(0));
+    // the parent's field of the same name is a distinct field
+    assertThat(((AbstractRandomBeansExtensionFieldTest) this).anyInt, notNullValue());
+  }
+}
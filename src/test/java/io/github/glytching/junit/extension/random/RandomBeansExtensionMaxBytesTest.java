@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.glytching.junit.extension.random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+@ExtendWith(RandomBeansExtension.class)
+public class RandomBeansExtensionMaxBytesTest {
+
+  private static final int BUDGET = 1024 * 1024;
+
+  @Test
+  public void canInjectACollectionWithinAByteBudget(
+      @Random(maxBytes = BUDGET, type = DomainObject.class) List<DomainObject> anyDomainObjects) {
+    long retained = retainedSizeOf(anyDomainObjects.iterator());
+
+    assertThat(retained, lessThanOrEqualTo((long) BUDGET));
+    // a single DomainObject is a few KB at most so the budget must be nearly used up
+    assertThat(retained, greaterThan(BUDGET - 64 * 1024L));
+  }
+
+  @Test
+  public void canInjectALazyStreamWithinAByteBudget(
+      @Random(maxBytes = BUDGET, type = String.class) Stream<String> anyStrings) {
+    assertThat(retainedSizeOf(anyStrings.iterator()), lessThanOrEqualTo((long) BUDGET));
+  }
+
+  @Test
+  public void canInjectPrimitiveValuesWithinAByteBudget(
+      @Random(maxBytes = 1000) byte[] anyBytes,
+      @Random(maxBytes = 1000) long[] anyLongs,
+      @Random(maxBytes = 1000) LongStream anyLongStream) {
+    assertThat(anyBytes.length, is(1000));
+    assertThat(anyLongs.length, is(125));
+    assertThat(anyLongStream.count(), is(125L));
+  }
+
+  @Test
+  public void canEstimateRetainedSize() {
+    assertThat(RetainedSize.of(new long[10]), is(96L));
+    // the string and its character array
+    assertThat(RetainedSize.of("abc"), is(48L));
+
+    String shared = "abc";
+    Object[] graph = {shared, shared, Arrays.asList(shared, shared)};
+    // a shared instance is counted once
+    assertThat(
+        RetainedSize.of(graph), lessThan(RetainedSize.of(new Object[] {"abc", "def", "ghi"})));
+  }
+
+  private long retainedSizeOf(Iterator<?> elements) {
+    long retained = 0;
+    while (elements.hasNext()) {
+      retained += RetainedSize.REFERENCE + RetainedSize.of(elements.next());
+    }
+    return retained;
+  }
+}
@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.glytching.junit.extension.random;
+
+import io.github.benas.randombeans.EnhancedRandomBuilder;
+import io.github.glytching.junit.extension.util.RecordingExecutionListener;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.platform.engine.TestExecutionResult.Status;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.github.glytching.junit.extension.util.ExtensionTester.execute;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.platform.engine.TestExecutionResult.Status.FAILED;
+import static org.junit.platform.engine.TestExecutionResult.Status.SUCCESSFUL;
+import static org.junit.platform.engine.discovery.DiscoverySelectors.selectClass;
+
+/**
+ * Runs a test case in parallel to show that concurrent tests can use the extension without
+ * sharing a generator. The test case is a static nested class so that it is not run by the normal
+ * test flow.
+ */
+public class RandomBeansExtensionParallelTest {
+
+  @Test
+  public void canGenerateRandomValuesForTestsRunningInParallel() {
+    Map<String, String> configuration = new HashMap<>();
+    configuration.put("junit.jupiter.execution.parallel.enabled", "true");
+    configuration.put("junit.jupiter.execution.parallel.mode.default", "concurrent");
+    configuration.put("junit.jupiter.execution.parallel.config.strategy", "fixed");
+    configuration.put("junit.jupiter.execution.parallel.config.fixed.parallelism", "4");
+
+    RecordingExecutionListener listener =
+        execute(configuration, selectClass(ParallelTestCase.class));
+
+    assertThat(countFinishedTests(listener, SUCCESSFUL), is(8L));
+    assertThat(countFinishedTests(listener, FAILED), is(0L));
+
+    // every thread which generated values did so with its own generator
+    assertThat(ParallelTestCase.threads.size(), greaterThan(0));
+    assertThat(ParallelTestCase.factoryInvocations.get(), is(ParallelTestCase.threads.size()));
+  }
+
+  private long countFinishedTests(RecordingExecutionListener listener, Status status) {
+    return listener
+        .getFinishedEventsByStatus(status)
+        .filter(event -> event.getTestDescriptor().isTest())
+        .count();
+  }
+
+  public static class ParallelTestCase {
+    static final AtomicInteger factoryInvocations = new AtomicInteger();
+    static final Set<Thread> threads = ConcurrentHashMap.newKeySet();
+
+    @RegisterExtension
+    static RandomBeansExtension randomBeansExtension =
+        new RandomBeansExtension(
+            () -> {
+              factoryInvocations.incrementAndGet();
+              return EnhancedRandomBuilder.aNewEnhancedRandom();
+            });
+
+    @Test
+    public void one(@Random(size = 100, type = DomainObject.class) List<DomainObject> objects) {
+      verify(objects);
+    }
+
+    @Test
+    public void two(@Random(size = 100, type = DomainObject.class) List<DomainObject> objects) {
+      verify(objects);
+    }
+
+    @Test
+    public void three(@Random(size = 100, type = DomainObject.class) List<DomainObject> objects) {
+      verify(objects);
+    }
+
+    @Test
+    public void four(@Random(size = 100, type = DomainObject.class) List<DomainObject> objects) {
+      verify(objects);
+    }
+
+    @Test
+    public void five(@Random(size = 100, type = DomainObject.class) List<DomainObject> objects) {
+      verify(objects);
+    }
+
+    @Test
+    public void six(@Random(size = 100, type = DomainObject.class) List<DomainObject> objects) {
+      verify(objects);
+    }
+
+    @Test
+    public void seven(@Random(size = 100, type = DomainObject.class) List<DomainObject> objects) {
+      verify(objects);
+    }
+
+    @Test
+    public void eight(@Random(size = 100, type = DomainObject.class) List<DomainObject> objects) {
+      verify(objects);
+    }
+
+    private void verify(List<DomainObject> objects) {
+      threads.add(Thread.currentThread());
+      assertThat(objects.size(), is(100));
+      for (DomainObject object : objects) {
+        assertThat(object.getName(), notNullValue());
+        assertThat(object.getNestedDomainObject(), notNullValue());
+      }
+    }
+  }
+}
@@ -21,10 +21,17 @@ import org.junit.jupiter.api.RepeatedTest;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
 import java.util.stream.Stream;
 
 import static io.github.glytching.junit.extension.util.AssertionUtil.*;
@@ -133,4 +140,82 @@ public class RandomBeansExtensionParameterTest {
       anyStrings.add(anyString);
     }
   }
+
+  @Test
+  public void canInjectAVeryLargeLazyStream(
+      @Random(size = 10_000_000, type = String.class) Stream<String> anyStream) {
+    // only the elements which are consumed are ever generated
+    assertThat(anyStream.limit(5).count(), is(5L));
+  }
+
+  @Test
+  public void canInjectALazyIterator(
+      @Random(size = 10_000_000, type = DomainObject.class) Iterator<DomainObject> anyIterator) {
+    for (int i = 0; i < 5; i++) {
+      assertThatDomainObjectIsFullyPopulated(anyIterator.next());
+    }
+  }
+
+  @Test
+  public void canInjectALazyIterable(
+      @Random(size = 3, type = String.class) Iterable<String> anyIterable) {
+    AtomicInteger count = new AtomicInteger();
+    anyIterable.forEach(s -> count.incrementAndGet());
+    assertThat(count.get(), is(3));
+
+    // the iterable can be iterated more than once, each time yielding the same elements
+    List<String> first = new ArrayList<>();
+    anyIterable.forEach(first::add);
+    List<String> second = new ArrayList<>();
+    anyIterable.forEach(second::add);
+    assertThat(first.size(), is(3));
+    assertThat(second, is(first));
+  }
+
+  @Test
+  public void canInjectPrimitiveStreams(
+      @Random(size = 10_000_000) IntStream anyInts, @Random(size = 7) LongStream anyLongs) {
+    assertThat(anyInts.limit(5).count(), is(5L));
+    assertThat(anyLongs.count(), is(7L));
+  }
+
+  @Test
+  public void canInjectPrimitiveArrays(
+      @Random(size = 1000) int[] anyInts,
+      @Random(size = 1000) long[] anyLongs,
+      @Random(size = 1000) double[] anyDoubles) {
+    assertThat(anyInts.length, is(1000));
+    assertThat(IntStream.of(anyInts).distinct().count(), greaterThan(1L));
+    assertThat(anyLongs.length, is(1000));
+    assertThat(LongStream.of(anyLongs).distinct().count(), greaterThan(1L));
+    assertThat(anyDoubles.length, is(1000));
+  }
+
+  @Test
+  public void canInjectRandomBytes(@Random(size = 1024 * 1024 + 3) byte[] anyBytes) {
+    assertThat(anyBytes.length, is(1024 * 1024 + 3));
+    // the trailing bytes, beyond the last whole long, are filled too
+    byte[] tail = Arrays.copyOfRange(anyBytes, anyBytes.length - 3, anyBytes.length);
+    assertThat(Arrays.equals(tail, new byte[3]), is(false));
+  }
+
+  @Test
+  public void canInjectAnOddSizedIntArray(@Random(size = 5) int[] anyInts) {
+    assertThat(anyInts.length, is(5));
+  }
+
+  @Test
+  public void canInjectRandomByteBuffers(
+      @Random(size = 1024) ByteBuffer anyHeapBuffer,
+      @Random(size = 1024, direct = true) ByteBuffer anyDirectBuffer) {
+    assertThat(anyHeapBuffer.isDirect(), is(false));
+    assertThat(anyHeapBuffer.position(), is(0));
+    assertThat(anyHeapBuffer.remaining(), is(1024));
+
+    assertThat(anyDirectBuffer.isDirect(), is(true));
+    assertThat(anyDirectBuffer.position(), is(0));
+    assertThat(anyDirectBuffer.remaining(), is(1024));
+
+    assertThat(anyHeapBuffer.equals(anyDirectBuffer), is(false));
+  }
 }
@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.glytching.junit.extension.random;
+
+import io.github.benas.randombeans.EnhancedRandomBuilder;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class RandomBeansExtensionPoolTest {
+
+  private static final int POOL_SIZE = 5;
+
+  @RegisterExtension
+  static RandomBeansExtension randomBeansExtension =
+      new RandomBeansExtension(EnhancedRandomBuilder.aNewEnhancedRandom(), POOL_SIZE);
+
+  // gather the injected instances to facilitate assertions that no pooled instance is reused
+  private static final Set<DomainObject> domainObjects =
+      Collections.newSetFromMap(new IdentityHashMap<>());
+
+  @AfterAll
+  public static void allInjectedInstancesAreDistinct() {
+    // two per repetition, more than the pool holds so the pool must have been refilled
+    assertThat(domainObjects.size(), is(2 * 10));
+  }
+
+  @RepeatedTest(10)
+  public void canInjectPooledInstances(
+      @Random DomainObject anyDomainObject,
+      @Random(excludes = "name") DomainObject anyPartiallyPopulatedDomainObject) {
+    assertThat(anyDomainObject.getName(), notNullValue());
+    assertThat(anyPartiallyPopulatedDomainObject.getName(), nullValue());
+
+    synchronized (domainObjects) {
+      domainObjects.add(anyDomainObject);
+      domainObjects.add(anyPartiallyPopulatedDomainObject);
+    }
+  }
+
+  @Test
+  public void canInjectPooledCollections(
+      @Random(size = 7, type = DomainObject.class) List<DomainObject> anyDomainObjects,
+      @Random(size = 3, type = String.class) Stream<String> anyStrings) {
+    assertThat(anyDomainObjects.size(), is(7));
+    assertThat(anyStrings.collect(Collectors.toList()).size(), is(3));
+  }
+
+  @Test
+  public void willRefillThePoolInTheBackground() throws InterruptedException {
+    RandomObjectPool pool =
+        new RandomObjectPool(RandomSource.shared(EnhancedRandomBuilder.aNewEnhancedRandom()), 3);
+
+    assertThat(pool.available(DomainObject.class), is(0));
+    assertThat(pool.next(DomainObject.class), instanceOf(DomainObject.class));
+
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    while (pool.available(DomainObject.class) < 3 && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+    }
+    assertThat(pool.available(DomainObject.class), is(3));
+
+    // pools are kept per type and excludes
+    assertThat(pool.available(DomainObject.class, "name"), is(0));
+  }
+
+  @Test
+  public void willThrowAnExceptionIfThePoolSizeIsNotPositive() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> new RandomBeansExtension(EnhancedRandomBuilder.aNewEnhancedRandom(), 0));
+  }
+}
@@ -0,0 +1,220 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.glytching.junit.extension.random;
+
+import io.github.glytching.junit.extension.util.RecordingExecutionListener;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.platform.engine.DiscoverySelector;
+import org.junit.platform.engine.reporting.ReportEntry;
+
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+import static io.github.glytching.junit.extension.util.ExecutionEvent.Type.REPORTING_ENTRY_PUBLISHED;
+import static io.github.glytching.junit.extension.util.ExtensionTester.execute;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.platform.engine.discovery.DiscoverySelectors.selectClass;
+import static org.junit.platform.engine.discovery.DiscoverySelectors.selectMethod;
+
+/**
+ * Tests seeded random generation. Some of these tests have to run a test case (more than once) and
+ * then compare what the test case received so the test cases used here are static nested classes
+ * so that they are not run by the normal test flow.
+ */
+@ExtendWith(RandomBeansExtension.class)
+public class RandomBeansExtensionSeedTest {
+
+  @Test
+  public void canSeedASingleValue(
+      @Random(seed = 42) DomainObject anyDomainObject,
+      @Random(seed = 42) DomainObject anotherDomainObject,
+      @Random(seed = 43) String aDifferentlySeededString,
+      @Random(seed = 43) String anotherDifferentlySeededString) {
+    assertThat(anyDomainObject.getName(), notNullValue());
+    assertThat(anyDomainObject.getName(), is(anotherDomainObject.getName()));
+    assertThat(anyDomainObject.getValue(), is(anotherDomainObject.getValue()));
+    assertThat(aDifferentlySeededString, is(anotherDifferentlySeededString));
+  }
+
+  @Test
+  public void canSeedPrimitiveValues(
+      @Random(seed = 42) long[] anyLongs,
+      @Random(seed = 42) long[] anotherLongs,
+      @Random(seed = 42, size = 99, direct = true) ByteBuffer anyBuffer,
+      @Random(seed = 42, size = 99) ByteBuffer anotherBuffer) {
+    assertThat(anyLongs, is(anotherLongs));
+    assertThat(anyBuffer, is(anotherBuffer));
+  }
+
+  @Test
+  public void canReproduceARunFromItsSeed() {
+    List<String> firstRun = runSeeded("1234", selectClass(SeededTestCase.class));
+    List<String> secondRun = runSeeded("1234", selectClass(SeededTestCase.class));
+    List<String> differentlySeededRun = runSeeded("5678", selectClass(SeededTestCase.class));
+
+    assertThat(firstRun.size(), is(4));
+    assertThat(secondRun, is(firstRun));
+    assertThat(differentlySeededRun, not(firstRun));
+  }
+
+  @Test
+  public void canReproduceASingleTestFromTheRunsSeed() {
+    List<String> wholeRun = runSeeded("1234", selectClass(SeededTestCase.class));
+    List<String> singleTest =
+        runSeeded(
+            "1234", selectMethod(SeededTestCase.class, "second", DomainObject.class.getName()));
+
+    // a test's fields and parameters depend only on the seed and the test's identity
+    assertThat(singleTest.size(), is(2));
+    assertThat(
+        wholeRun.stream().filter(value -> value.startsWith("second")).collect(Collectors.toList()),
+        is(singleTest));
+  }
+
+  @Test
+  public void canReproduceARunWhenTestsRunInParallel() {
+    Map<String, String> configuration = new HashMap<>();
+    configuration.put("junit.jupiter.execution.parallel.enabled", "true");
+    configuration.put("junit.jupiter.execution.parallel.mode.default", "concurrent");
+
+    List<String> sequential = runSeeded("1234", selectClass(SeededTestCase.class));
+    List<String> parallel = runSeeded("1234", configuration, selectClass(SeededTestCase.class));
+
+    assertThat(parallel, is(sequential));
+  }
+
+  @Test
+  public void seededTestsReuseTheThreadsRandomRatherThanEachBuildingTheirOwn() {
+    // warm up, so that this thread has already built its random
+    runSeeded("1234", selectClass(SeededTestCase.class));
+    long before = RandomBeansExtension.defaultBuilders();
+
+    List<String> values = runSeeded("5678", selectClass(SeededTestCase.class));
+
+    assertThat(values.size(), is(4));
+    assertThat(RandomBeansExtension.defaultBuilders() - before, is(0L));
+  }
+
+  @Test
+  public void willPublishTheSeedWhenASeededTestFails() {
+    String previous = System.setProperty(RandomBeansExtension.SEED_PROPERTY, "1234");
+    try {
+      RecordingExecutionListener listener = execute(selectClass(FailingTestCase.class));
+
+      List<Map<String, String>> reportEntries =
+          listener
+              .getEventsByType(REPORTING_ENTRY_PUBLISHED)
+              .map(event -> event.getPayload(ReportEntry.class).get().getKeyValuePairs())
+              .collect(Collectors.toList());
+      assertThat(reportEntries.size(), is(1));
+      assertThat(reportEntries, hasItem(hasEntry(RandomBeansExtension.SEED_PROPERTY, "1234")));
+    } finally {
+      restore(previous);
+    }
+  }
+
+  @Test
+  public void canReproduceAFailureFromTheSeedPublishedForAnUnseededRun() {
+    String previous = System.clearProperty(RandomBeansExtension.SEED_PROPERTY);
+    try {
+      FailingTestCase.values.clear();
+      RecordingExecutionListener listener =
+          execute(selectMethod(FailingTestCase.class, "fails", String.class.getName()));
+
+      List<String> seeds =
+          listener
+              .getEventsByType(REPORTING_ENTRY_PUBLISHED)
+              .map(event -> event.getPayload(ReportEntry.class).get().getKeyValuePairs())
+              .map(entries -> entries.get(RandomBeansExtension.SEED_PROPERTY))
+              .collect(Collectors.toList());
+      assertThat(seeds.size(), is(1));
+      String failingValue = FailingTestCase.values.get(0);
+
+      System.setProperty(RandomBeansExtension.SEED_PROPERTY, seeds.get(0));
+      FailingTestCase.values.clear();
+      execute(selectMethod(FailingTestCase.class, "fails", String.class.getName()));
+
+      assertThat(FailingTestCase.values, contains(failingValue));
+    } finally {
+      restore(previous);
+    }
+  }
+
+  private List<String> runSeeded(String seed, DiscoverySelector selector) {
+    return runSeeded(seed, Collections.emptyMap(), selector);
+  }
+
+  private List<String> runSeeded(
+      String seed, Map<String, String> configuration, DiscoverySelector selector) {
+    String previous = System.setProperty(RandomBeansExtension.SEED_PROPERTY, seed);
+    try {
+      SeededTestCase.values.clear();
+      execute(configuration, selector);
+      return SeededTestCase.values.stream().sorted().collect(Collectors.toList());
+    } finally {
+      restore(previous);
+    }
+  }
+
+  private void restore(String previous) {
+    if (previous == null) {
+      System.clearProperty(RandomBeansExtension.SEED_PROPERTY);
+    } else {
+      System.setProperty(RandomBeansExtension.SEED_PROPERTY, previous);
+    }
+  }
+
+  @ExtendWith(RandomBeansExtension.class)
+  public static class SeededTestCase {
+    static final List<String> values = new CopyOnWriteArrayList<>();
+
+    @Random private String anyString;
+
+    @Test
+    public void first(@Random DomainObject anyDomainObject) {
+      values.add("first.field:" + anyString);
+      values.add("first.parameter:" + anyDomainObject.getName());
+    }
+
+    @Test
+    public void second(@Random DomainObject anyDomainObject) {
+      values.add("second.field:" + anyString);
+      values.add("second.parameter:" + anyDomainObject.getName());
+    }
+  }
+
+  @ExtendWith(RandomBeansExtension.class)
+  public static class FailingTestCase {
+    static final List<String> values = new CopyOnWriteArrayList<>();
+
+    @Test
+    public void passes(@Random String anyString) {}
+
+    @Test
+    public void fails(@Random String anyString) {
+      values.add(anyString);
+      throw new AssertionError(anyString);
+    }
+  }
+}
@@ -0,0 +1,147 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.glytching.junit.extension.random;
+
+import io.github.glytching.junit.extension.util.RecordingExecutionListener;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.platform.engine.TestExecutionResult.Status;
+import org.junit.platform.engine.reporting.ReportEntry;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+import static io.github.glytching.junit.extension.util.ExecutionEvent.Type.REPORTING_ENTRY_PUBLISHED;
+import static io.github.glytching.junit.extension.util.ExtensionTester.execute;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.platform.engine.TestExecutionResult.Status.FAILED;
+import static org.junit.platform.engine.discovery.DiscoverySelectors.selectClass;
+
+/**
+ * Tests {@link RandomTest}. Some of these tests have to run a test case and then assert against
+ * what the engine did so the test cases used here are static nested classes so that they are not
+ * run by the normal test flow.
+ */
+@ExtendWith(RandomBeansExtension.class)
+public class RandomBeansExtensionTriesTest {
+
+  private static final Set<String> triedValues = ConcurrentHashMap.newKeySet();
+
+  @AfterAll
+  public static void eachTryWasGivenFreshValues() {
+    assertThat(triedValues.size(), is(5));
+  }
+
+  @RandomTest(tries = 5)
+  public void canTryATestManyTimes(@Random String anyString) {
+    triedValues.add(anyString);
+  }
+
+  @Test
+  public void canReproduceAFailingTryFromItsPublishedSeed() {
+    RecordingExecutionListener listener = execute(selectClass(FailingTriesTestCase.class));
+
+    assertThat(countFinishedTests(listener, FAILED), is(3L));
+    List<String> seeds =
+        listener
+            .getEventsByType(REPORTING_ENTRY_PUBLISHED)
+            .map(event -> event.getPayload(ReportEntry.class).get().getKeyValuePairs())
+            .map(entries -> entries.get(RandomBeansExtension.SEED_PROPERTY))
+            .distinct()
+            .collect(Collectors.toList());
+    // every try derives its own seed from the one seed chosen for the tries
+    assertThat(seeds.size(), is(1));
+    List<Long> firstRun = drainValues();
+
+    String previous = System.setProperty(RandomBeansExtension.SEED_PROPERTY, seeds.get(0));
+    try {
+      execute(selectClass(FailingTriesTestCase.class));
+    } finally {
+      if (previous == null) {
+        System.clearProperty(RandomBeansExtension.SEED_PROPERTY);
+      } else {
+        System.setProperty(RandomBeansExtension.SEED_PROPERTY, previous);
+      }
+    }
+
+    assertThat(firstRun.size(), is(3));
+    assertThat(drainValues(), is(firstRun));
+  }
+
+  @Test
+  public void canSeedTheTries() {
+    execute(selectClass(SeededTriesTestCase.class));
+    List<Long> firstRun = drainValues();
+    List<String> firstRunFields = drainFieldValues();
+    execute(selectClass(SeededTriesTestCase.class));
+
+    assertThat(firstRun.size(), is(3));
+    assertThat(drainValues(), is(firstRun));
+    // fields are seeded from each try too, so they are reproducible and fresh for every try
+    assertThat(firstRunFields.stream().distinct().count(), is(3L));
+    assertThat(drainFieldValues(), is(firstRunFields));
+  }
+
+  private List<Long> drainValues() {
+    List<Long> values = FailingTriesTestCase.values.stream().sorted().collect(Collectors.toList());
+    FailingTriesTestCase.values.clear();
+    return values;
+  }
+
+  private List<String> drainFieldValues() {
+    List<String> values =
+        SeededTriesTestCase.fieldValues.stream().sorted().collect(Collectors.toList());
+    SeededTriesTestCase.fieldValues.clear();
+    return values;
+  }
+
+  private long countFinishedTests(RecordingExecutionListener listener, Status status) {
+    return listener
+        .getFinishedEventsByStatus(status)
+        .filter(event -> event.getTestDescriptor().isTest())
+        .count();
+  }
+
+  @ExtendWith(RandomBeansExtension.class)
+  public static class FailingTriesTestCase {
+    static final List<Long> values = new CopyOnWriteArrayList<>();
+
+    @RandomTest(tries = 3)
+    public void fails(@Random long anyLong) {
+      values.add(anyLong);
+      throw new AssertionError(anyLong);
+    }
+  }
+
+  @ExtendWith(RandomBeansExtension.class)
+  public static class SeededTriesTestCase {
+    static final List<String> fieldValues = new CopyOnWriteArrayList<>();
+
+    @Random private String anyString;
+
+    @RandomTest(tries = 3, seed = 42)
+    public void passes(@Random long anyLong) {
+      FailingTriesTestCase.values.add(anyLong);
+      fieldValues.add(anyString);
+    }
+  }
+}
@@ -0,0 +1,79 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.glytching.junit.extension.random;
+
+import java.util.List;
+import java.util.Set;
+
+@RandomizableType
+public class RandomizableDomainObject {
+
+  // populated directly by the generated randomizer
+  String name;
+  Integer count;
+  char code;
+  Set<Long> values;
+
+  // populated via setters by the generated randomizer
+  private long id;
+  private boolean active;
+  private NestedDomainObject nestedDomainObject;
+  private List<String> wotsits;
+
+  // initialised here, only a generated randomizer overrides this
+  private String origin = "constructor";
+
+  public long getId() {
+    return id;
+  }
+
+  public void setId(long id) {
+    this.id = id;
+  }
+
+  public boolean isActive() {
+    return active;
+  }
+
+  public void setActive(boolean active) {
+    this.active = active;
+  }
+
+  public NestedDomainObject getNestedDomainObject() {
+    return nestedDomainObject;
+  }
+
+  public void setNestedDomainObject(NestedDomainObject nestedDomainObject) {
+    this.nestedDomainObject = nestedDomainObject;
+  }
+
+  public List<String> getWotsits() {
+    return wotsits;
+  }
+
+  public void setWotsits(List<String> wotsits) {
+    this.wotsits = wotsits;
+  }
+
+  public String getOrigin() {
+    return origin;
+  }
+
+  public void setOrigin(String origin) {
+    this.origin = origin;
+  }
+}
@@ -0,0 +1,148 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.glytching.junit.extension.random;
+
+import io.github.glytching.junit.extension.folder.TemporaryFolder;
+import io.github.glytching.junit.extension.folder.TemporaryFolderExtension;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import javax.tools.*;
+import java.net.URI;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Runs the {@link RandomizableTypeProcessor} over in memory sources, without compiling them, to
+ * assert on the errors it reports.
+ */
+@ExtendWith(TemporaryFolderExtension.class)
+public class RandomizableTypeProcessorTest {
+
+  @Test
+  public void willAcceptCollectionsOfANonGenericType(TemporaryFolder temporaryFolder) {
+    List<String> errors =
+        process(
+            temporaryFolder,
+            "import java.util.*;",
+            "@io.github.glytching.junit.extension.random.RandomizableType",
+            "public class Sample {",
+            "  List<String> names;",
+            "  Set<Long> ids;",
+            "  Collection<Integer> counts;",
+            "}");
+
+    assertThat(errors, empty());
+  }
+
+  @Test
+  public void willRejectAMap(TemporaryFolder temporaryFolder) {
+    List<String> errors =
+        process(
+            temporaryFolder,
+            "import java.util.*;",
+            "@io.github.glytching.junit.extension.random.RandomizableType",
+            "public class Sample {",
+            "  Map<String, Integer> counts;",
+            "}");
+
+    assertThat(errors, contains(containsString("cannot populate field [counts]")));
+  }
+
+  @Test
+  public void willRejectACollectionOfAGenericType(TemporaryFolder temporaryFolder) {
+    List<String> errors =
+        process(
+            temporaryFolder,
+            "import java.util.*;",
+            "@io.github.glytching.junit.extension.random.RandomizableType",
+            "public class Sample {",
+            "  List<List<String>> names;",
+            "}");
+
+    assertThat(errors, contains(containsString("cannot populate field [names]")));
+  }
+
+  @Test
+  public void willGenerateARandomizerWhichCompilesForTypeUseAnnotatedFields(
+      TemporaryFolder temporaryFolder) {
+    List<String> errors =
+        compile(
+            temporaryFolder,
+            "import java.lang.annotation.*;",
+            "import java.util.*;",
+            "@io.github.glytching.junit.extension.random.RandomizableType",
+            "public class Sample {",
+            "  @Target(ElementType.TYPE_USE) @interface NonNull {}",
+            "  List<@NonNull String> names;",
+            "  Set<java.lang.@NonNull Long> ids;",
+            "  java.util.@NonNull Date date;",
+            "  @NonNull String @NonNull [] values;",
+            "}");
+
+    assertThat(errors, empty());
+  }
+
+  private List<String> process(TemporaryFolder generatedSources, String... lines) {
+    return run(asList("-proc:only", "-s", generatedSources.getRoot().getPath()), lines);
+  }
+
+  /** Process and then compile, including the generated randomizer, into the temporary folder. */
+  private List<String> compile(TemporaryFolder temporaryFolder, String... lines) {
+    String output = temporaryFolder.getRoot().getPath();
+    return run(asList("-s", output, "-d", output), lines);
+  }
+
+  private List<String> run(List<String> options, String... lines) {
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+    JavaFileObject source =
+        new SimpleJavaFileObject(URI.create("string:///Sample.java"), JavaFileObject.Kind.SOURCE) {
+          @Override
+          public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return String.join("\n", lines);
+          }
+        };
+
+    JavaCompiler.CompilationTask task =
+        compiler.getTask(
+            null,
+            null,
+            diagnostics,
+            Stream.concat(
+                    options.stream(),
+                    Stream.of("-classpath", System.getProperty("java.class.path")))
+                .collect(Collectors.toList()),
+            null,
+            singletonList(source));
+    task.setProcessors(singletonList(new RandomizableTypeProcessor()));
+    task.call();
+
+    return diagnostics
+        .getDiagnostics()
+        .stream()
+        .filter(diagnostic -> diagnostic.getKind() == Diagnostic.Kind.ERROR)
+        .map(diagnostic -> diagnostic.getMessage(null))
+        .collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.glytching.junit.extension.random;
+
+import io.github.benas.randombeans.EnhancedRandomBuilder;
+import io.github.benas.randombeans.api.EnhancedRandom;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class ReseedableRandomTest {
+
+  @Test
+  public void willGenerateTheSameValuesAsANewlyBuiltRandomWithTheSameSeed() {
+    ReseedableRandom reseedable =
+        new ReseedableRandom(EnhancedRandomBuilder::aNewEnhancedRandomBuilder);
+
+    for (long seed : new long[] {42, 43, 42, -7}) {
+      EnhancedRandom expected =
+          EnhancedRandomBuilder.aNewEnhancedRandomBuilder().seed(seed).build();
+
+      assertThat(values(reseedable.reseed(seed)), is(values(expected)));
+    }
+  }
+
+  @Test
+  public void willReseedRandomizersWhichAreCreatedAfterTheFirstReseed() {
+    ReseedableRandom reseedable =
+        new ReseedableRandom(EnhancedRandomBuilder::aNewEnhancedRandomBuilder);
+    reseedable.reseed(1).nextObject(String.class);
+
+    // random-beans creates a randomizer for each enum type on first use
+    reseedable.reseed(2).nextObject(TimeUnit.class);
+
+    EnhancedRandom expected = EnhancedRandomBuilder.aNewEnhancedRandomBuilder().seed(3).build();
+    assertThat(values(reseedable.reseed(3)), is(values(expected)));
+  }
+
+  @Test
+  public void willBuildOnlyOnceRegardlessOfHowOftenItIsReseeded() {
+    AtomicInteger builders = new AtomicInteger();
+
+    ReseedableRandom reseedable =
+        new ReseedableRandom(
+            () -> {
+              builders.incrementAndGet();
+              return EnhancedRandomBuilder.aNewEnhancedRandomBuilder();
+            });
+    for (long seed = 0; seed < 10; seed++) {
+      reseedable.reseed(seed).nextObject(DomainObject.class);
+    }
+
+    assertThat(builders.get(), is(1));
+  }
+
+  private List<Object> values(EnhancedRandom random) {
+    DomainObject domainObject = random.nextObject(DomainObject.class);
+    return Arrays.asList(
+        random.nextObject(String.class),
+        random.nextObject(Integer.class),
+        random.nextObject(DayOfWeek.class),
+        random.nextObject(TimeUnit.class),
+        random.nextObject(LocalDate.class),
+        domainObject.getName(),
+        domainObject.getValue(),
+        domainObject.getWotsits(),
+        random.nextLong());
+  }
+}
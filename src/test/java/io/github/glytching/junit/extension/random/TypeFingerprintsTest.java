@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.glytching.junit.extension.random;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class TypeFingerprintsTest {
+
+  @Test
+  public void willDescribeEveryClassReachableThroughFields() {
+    String shape = TypeFingerprints.shape(Root.class);
+
+    assertThat(shape, containsString(Root.class.getName() + "{"));
+    assertThat(shape, containsString(Branch.class.getName() + "{"));
+    assertThat(shape, containsString(Leaf.class.getName() + "{colour:java.lang.String;}"));
+    // a superclass's fields are part of the subclass's shape
+    assertThat(shape, containsString("inherited:" + Leaf.class.getName() + ";"));
+    // JDK classes are named but not walked
+    assertThat(shape, containsString("java.util.List{}"));
+    assertThat(shape, not(containsString("transientLeaf")));
+    assertThat(shape, not(containsString("STATIC_LEAF")));
+  }
+
+  @Test
+  public void willFingerprintTheSameTypesConsistently() {
+    assertThat(
+        TypeFingerprints.fingerprint(List.class, Root.class),
+        is(TypeFingerprints.fingerprint(List.class, Root.class)));
+    assertThat(
+        TypeFingerprints.fingerprint(List.class, Root.class),
+        not(TypeFingerprints.fingerprint(List.class, Branch.class)));
+  }
+
+  @Test
+  public void canReadTheRandomBeansVersion() {
+    assertThat(TypeFingerprints.randomBeansVersion(), not("-"));
+  }
+
+  static class Root extends Parent {
+    List<Branch> branches;
+    Map<String, Branch[]> branchesByName;
+    transient Leaf transientLeaf;
+  }
+
+  static class Parent {
+    static Leaf STATIC_LEAF;
+    Leaf inherited;
+  }
+
+  static class Branch {
+    Leaf leaf;
+    Root root;
+  }
+
+  static class Leaf {
+    String colour;
+  }
+}
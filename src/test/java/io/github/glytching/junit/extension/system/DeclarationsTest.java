@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.glytching.junit.extension.system;
+
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class DeclarationsTest {
+
+  @Test
+  public void canReadSingleAndRepeatedDeclarations() throws NoSuchMethodException {
+    Declarations single = Declarations.systemProperties(Annotated.class.getMethod("single"));
+    assertThat(single.names, arrayContaining("a"));
+    assertThat(single.values, arrayContaining("1"));
+
+    Declarations repeated = Declarations.systemProperties(Annotated.class);
+    assertThat(repeated.names, arrayContaining("a", "b"));
+    assertThat(repeated.values, arrayContaining("1", "2"));
+
+    Declarations environment = Declarations.environmentVariables(Annotated.class);
+    assertThat(environment.names, arrayContaining("A"));
+    assertThat(environment.values, arrayContaining("1"));
+  }
+
+  @Test
+  public void willKeepTheLastValueForARepeatedName() throws NoSuchMethodException {
+    Declarations declarations =
+        Declarations.systemProperties(Annotated.class.getMethod("duplicated"));
+
+    assertThat(declarations.names, arrayContaining("a", "b"));
+    assertThat(declarations.values, arrayContaining("3", "2"));
+  }
+
+  @Test
+  public void willShareTheEmptyDeclarationsForAnElementWithoutAnnotations()
+      throws NoSuchMethodException {
+    assertThat(
+        Declarations.systemProperties(Annotated.class.getMethod("none")),
+        sameInstance(Declarations.NONE));
+    assertThat(
+        Declarations.environmentVariables(Annotated.class.getMethod("single")),
+        sameInstance(Declarations.NONE));
+    assertThat(Declarations.NONE.isEmpty(), is(true));
+  }
+
+  @Test
+  public void willCacheTheDeclarationsForAnElement() {
+    assertThat(
+        Declarations.systemProperties(Annotated.class),
+        sameInstance(Declarations.systemProperties(Annotated.class)));
+  }
+
+  @Test
+  public void willCacheTheEffectiveDeclarationsForATest() throws NoSuchMethodException {
+    Declarations effective =
+        Declarations.systemProperties(Annotated.class, Annotated.class.getMethod("duplicated"));
+
+    assertThat(effective.names, arrayContaining("a", "b"));
+    assertThat(effective.values, arrayContaining("3", "2"));
+    assertThat(
+        Declarations.systemProperties(Annotated.class, Annotated.class.getMethod("duplicated")),
+        sameInstance(effective));
+  }
+
+  @SystemProperty(name = "a", value = "1")
+  @SystemProperty(name = "b", value = "2")
+  @EnvironmentVariable(name = "A", value = "1")
+  public static class Annotated {
+
+    @SystemProperty(name = "a", value = "1")
+    public void single() {}
+
+    @SystemProperty(name = "a", value = "1")
+    @SystemProperty(name = "b", value = "2")
+    @SystemProperty(name = "a", value = "3")
+    public void duplicated() {}
+
+    public void none() {}
+  }
+}
@@ -0,0 +1,258 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.glytching.junit.extension.system;
+
+import io.github.glytching.junit.extension.util.RecordingExecutionListener;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.platform.engine.TestExecutionResult.Status;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static io.github.glytching.junit.extension.util.ExtensionTester.execute;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.platform.engine.TestExecutionResult.Status.FAILED;
+import static org.junit.platform.engine.TestExecutionResult.Status.SUCCESSFUL;
+import static org.junit.platform.engine.discovery.DiscoverySelectors.selectClass;
+
+/**
+ * Tests the {@link EnvironmentVariableExtension} <em>from the outside</em> so that we can assert
+ * that the environment has been reverted <b>after</b> the test engine has completed.
+ *
+ * <p>The test cases used here are static nested classes so that they are not run by the normal
+ * test flow.
+ */
+public class EnvironmentVariableExtensionMetaTest {
+
+  @AfterEach
+  public void tearDown() {
+    Environment.set("PRE_SET_VARIABLE", null);
+  }
+
+  @Test
+  public void environmentVariablesWillBeResetBackToTheirPreTestValues() {
+    Environment.set("PRE_SET_VARIABLE", "no");
+
+    RecordingExecutionListener listener = execute(selectClass(RestoredTestCase.class));
+
+    assertThat(countFinishedTests(listener, SUCCESSFUL), is(2L));
+    assertThat(System.getenv("PRE_SET_VARIABLE"), is("no"));
+  }
+
+  @Test
+  public void environmentVariablesWillBeUnsetIfTheyHadNoPreTestValue() {
+    RecordingExecutionListener listener = execute(selectClass(RestoredTestCase.class));
+
+    assertThat(countFinishedTests(listener, SUCCESSFUL), is(2L));
+    assertThat(System.getenv("PRE_SET_VARIABLE"), nullValue());
+    assertThat(System.getenv("UNSET_VARIABLE"), nullValue());
+    assertThat(System.getenv().containsKey("UNSET_VARIABLE"), is(false));
+  }
+
+  @Test
+  public void classLevelEnvironmentVariablesAreVisibleToBeforeAllAndAfterAllWhenRunSerially() {
+    RecordingExecutionListener listener = execute(selectClass(LifecycleTestCase.class));
+
+    assertThat(countFinishedTests(listener, SUCCESSFUL), is(1L));
+    assertThat(LifecycleTestCase.seenByBeforeAll.get(), is("class"));
+    assertThat(LifecycleTestCase.seenByAfterAll.get(), is("class"));
+    assertThat(System.getenv("LIFECYCLE_VARIABLE"), nullValue());
+  }
+
+  @Test
+  public void testsWhichSetTheSameEnvironmentVariableTakeTurnsWhenRunInParallel() {
+    Map<String, String> configuration = new HashMap<>();
+    configuration.put("junit.jupiter.execution.parallel.enabled", "true");
+    configuration.put("junit.jupiter.execution.parallel.mode.default", "concurrent");
+    configuration.put("junit.jupiter.execution.parallel.config.strategy", "fixed");
+    configuration.put("junit.jupiter.execution.parallel.config.fixed.parallelism", "4");
+
+    RecordingExecutionListener listener =
+        execute(configuration, selectClass(LockedTestCase.class));
+
+    assertThat(countFinishedTests(listener, SUCCESSFUL), is(4L));
+    assertThat(countFinishedTests(listener, FAILED), is(0L));
+    assertThat(LockedTestCase.maxConcurrentHolders.get(), is(1));
+    assertThat(System.getenv("LOCKED_VARIABLE"), nullValue());
+  }
+
+  @Test
+  public void testsWhichSetTheSameVariablesAtDifferentLevelsDoNotDeadlockWhenRunInParallel() {
+    Map<String, String> configuration = new HashMap<>();
+    configuration.put("junit.jupiter.execution.parallel.enabled", "true");
+    configuration.put("junit.jupiter.execution.parallel.mode.default", "concurrent");
+    configuration.put("junit.jupiter.execution.parallel.config.strategy", "fixed");
+    configuration.put("junit.jupiter.execution.parallel.config.fixed.parallelism", "4");
+
+    RecordingExecutionListener listener =
+        assertTimeoutPreemptively(
+            Duration.ofSeconds(30),
+            () ->
+                execute(
+                    configuration,
+                    selectClass(CrossedLocksTestCaseA.class),
+                    selectClass(CrossedLocksTestCaseB.class)));
+
+    assertThat(countFinishedTests(listener, SUCCESSFUL), is(2L));
+    assertThat(System.getenv("CROSSED_VARIABLE_A"), nullValue());
+    assertThat(System.getenv("CROSSED_VARIABLE_B"), nullValue());
+  }
+
+  private long countFinishedTests(RecordingExecutionListener listener, Status status) {
+    return listener
+        .getFinishedEventsByStatus(status)
+        .filter(event -> event.getTestDescriptor().isTest())
+        .count();
+  }
+
+  @EnvironmentVariable(name = "PRE_SET_VARIABLE", value = "class")
+  public static class RestoredTestCase {
+
+    @Test
+    @EnvironmentVariable(name = "PRE_SET_VARIABLE", value = "method")
+    @EnvironmentVariable(name = "UNSET_VARIABLE", value = "method")
+    public void overrides() {
+      assertThat(System.getenv("PRE_SET_VARIABLE"), is("method"));
+      assertThat(System.getenv("UNSET_VARIABLE"), is("method"));
+    }
+
+    @Test
+    public void inherits() {
+      assertThat(System.getenv("PRE_SET_VARIABLE"), is("class"));
+      assertThat(System.getenv("UNSET_VARIABLE"), nullValue());
+    }
+  }
+
+  @EnvironmentVariable(name = "LIFECYCLE_VARIABLE", value = "class")
+  public static class LifecycleTestCase {
+    static final AtomicReference<String> seenByBeforeAll = new AtomicReference<>();
+    static final AtomicReference<String> seenByAfterAll = new AtomicReference<>();
+
+    @BeforeAll
+    public static void beforeAll() {
+      seenByBeforeAll.set(System.getenv("LIFECYCLE_VARIABLE"));
+    }
+
+    @AfterAll
+    public static void afterAll() {
+      seenByAfterAll.set(System.getenv("LIFECYCLE_VARIABLE"));
+    }
+
+    @Test
+    @EnvironmentVariable(name = "LIFECYCLE_VARIABLE", value = "method")
+    public void test() {
+      assertThat(System.getenv("LIFECYCLE_VARIABLE"), is("method"));
+    }
+  }
+
+  public static class LockedTestCase {
+    static final AtomicInteger maxConcurrentHolders = new AtomicInteger();
+    private static final AtomicInteger holders = new AtomicInteger();
+
+    @Test
+    @EnvironmentVariable(name = "LOCKED_VARIABLE", value = "one")
+    public void one() throws InterruptedException {
+      verify("one");
+    }
+
+    @Test
+    @EnvironmentVariable(name = "LOCKED_VARIABLE", value = "two")
+    public void two() throws InterruptedException {
+      verify("two");
+    }
+
+    @Test
+    @EnvironmentVariable(name = "LOCKED_VARIABLE", value = "three")
+    public void three() throws InterruptedException {
+      verify("three");
+    }
+
+    @Test
+    @EnvironmentVariable(name = "LOCKED_VARIABLE", value = "four")
+    public void four() throws InterruptedException {
+      verify("four");
+    }
+
+    private void verify(String expected) throws InterruptedException {
+      int current = holders.incrementAndGet();
+      maxConcurrentHolders.accumulateAndGet(current, Math::max);
+      try {
+        for (int i = 0; i < 10; i++) {
+          assertThat(System.getenv("LOCKED_VARIABLE"), is(expected));
+          Thread.sleep(5);
+        }
+      } finally {
+        holders.decrementAndGet();
+      }
+    }
+  }
+
+  // the barrier gives both classes the chance to start before either class's test runs
+  private static final CyclicBarrier crossedLocksBarrier = new CyclicBarrier(2);
+
+  private static void awaitCrossedLocks() throws InterruptedException {
+    try {
+      crossedLocksBarrier.await(2, TimeUnit.SECONDS);
+    } catch (TimeoutException | BrokenBarrierException ex) {
+      // the classes did not overlap, the assertions still hold
+    }
+  }
+
+  @EnvironmentVariable(name = "CROSSED_VARIABLE_A", value = "class")
+  public static class CrossedLocksTestCaseA {
+
+    @BeforeAll
+    public static void start() throws InterruptedException {
+      awaitCrossedLocks();
+    }
+
+    @Test
+    @EnvironmentVariable(name = "CROSSED_VARIABLE_B", value = "method")
+    public void test() {
+      assertThat(System.getenv("CROSSED_VARIABLE_A"), is("class"));
+      assertThat(System.getenv("CROSSED_VARIABLE_B"), is("method"));
+    }
+  }
+
+  @EnvironmentVariable(name = "CROSSED_VARIABLE_B", value = "class")
+  public static class CrossedLocksTestCaseB {
+
+    @BeforeAll
+    public static void start() throws InterruptedException {
+      awaitCrossedLocks();
+    }
+
+    @Test
+    @EnvironmentVariable(name = "CROSSED_VARIABLE_A", value = "method")
+    public void test() {
+      assertThat(System.getenv("CROSSED_VARIABLE_A"), is("method"));
+      assertThat(System.getenv("CROSSED_VARIABLE_B"), is("class"));
+    }
+  }
+}
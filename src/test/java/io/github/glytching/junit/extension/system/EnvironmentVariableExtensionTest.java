@@ -0,0 +1,53 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.glytching.junit.extension.system;
+
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+@EnvironmentVariable(name = "CLASS_VARIABLE_A", value = "classValueA")
+@EnvironmentVariable(name = "CLASS_VARIABLE_B", value = "classValueB")
+public class EnvironmentVariableExtensionTest {
+
+  @Test
+  public void canSetEnvironmentVariablesAtClassLevel() {
+    assertThat(System.getenv("CLASS_VARIABLE_A"), is("classValueA"));
+    assertThat(System.getenv("CLASS_VARIABLE_B"), is("classValueB"));
+    assertThat(System.getenv().get("CLASS_VARIABLE_A"), is("classValueA"));
+  }
+
+  @Test
+  @EnvironmentVariable(name = "METHOD_VARIABLE", value = "methodValue")
+  public void canSetEnvironmentVariableAtMethodLevel() {
+    assertThat(System.getenv("METHOD_VARIABLE"), is("methodValue"));
+    assertThat(System.getenv("CLASS_VARIABLE_A"), is("classValueA"));
+  }
+
+  @Test
+  @EnvironmentVariable(name = "CLASS_VARIABLE_A", value = "methodValue")
+  public void canOverrideAClassLevelEnvironmentVariableAtMethodLevel() {
+    assertThat(System.getenv("CLASS_VARIABLE_A"), is("methodValue"));
+  }
+
+  @Test
+  public void methodLevelEnvironmentVariablesAreNotVisibleToOtherTests() {
+    assertThat(System.getenv("METHOD_VARIABLE"), nullValue());
+  }
+}
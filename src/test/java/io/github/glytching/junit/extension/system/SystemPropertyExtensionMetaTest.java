@@ -16,12 +16,30 @@
  */
 package io.github.glytching.junit.extension.system;
 
+import io.github.glytching.junit.extension.util.RecordingExecutionListener;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
+import org.junit.platform.engine.TestExecutionResult.Status;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static io.github.glytching.junit.extension.util.ExtensionTester.execute;
 import static org.hamcrest.MatcherAssert.assertThat;
-import static org.hamcrest.Matchers.is;
-import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.platform.engine.TestExecutionResult.Status.FAILED;
+import static org.junit.platform.engine.TestExecutionResult.Status.SUCCESSFUL;
 import static org.junit.platform.engine.discovery.DiscoverySelectors.selectClass;
 import static org.junit.platform.engine.discovery.DiscoverySelectors.selectMethod;
 
@@ -32,6 +50,9 @@ import static org.junit.platform.engine.discovery.DiscoverySelectors.selectMetho
  * test that behaviour in the standard test flow. Instead, we have to run the test and then assert
  * that the reversion is successful <b>after</b> the test engine has completed (including invoking
  * afterEach, afterAll).
+ *
+ * <p>Some of the test cases used here are static nested classes so that they are not run by the
+ * normal test flow.
  */
 public class SystemPropertyExtensionMetaTest {
 
@@ -60,6 +81,16 @@ public class SystemPropertyExtensionMetaTest {
     assertThat(System.getProperty("classPropertyKeyB"), nullValue());
   }
 
+  @Test
+  public void classLevelSystemPropertiesAreVisibleToBeforeAllAndAfterAllWhenRunSerially() {
+    RecordingExecutionListener listener = execute(selectClass(LifecycleTestCase.class));
+
+    assertThat(countFinishedTests(listener, SUCCESSFUL), is(1L));
+    assertThat(LifecycleTestCase.seenByBeforeAll.get(), is("class"));
+    assertThat(LifecycleTestCase.seenByAfterAll.get(), is("class"));
+    assertThat(System.getProperty("lifecycleKey"), nullValue());
+  }
+
   @Test
   public void methodLevelSystemPropertyWillBeResetBackToItsPreTestValue() {
     System.setProperty("keyC", "no");
@@ -84,4 +115,272 @@ public class SystemPropertyExtensionMetaTest {
 
     assertThat(System.getProperty("keyB"), nullValue());
   }
+
+  @Test
+  public void overlaidSystemPropertiesDoNotInterfereWhenRunInParallel() {
+    Map<String, String> configuration = new HashMap<>();
+    configuration.put(SystemPropertyExtension.OVERLAY_PARAMETER, "true");
+    configuration.put("junit.jupiter.execution.parallel.enabled", "true");
+    configuration.put("junit.jupiter.execution.parallel.mode.default", "concurrent");
+    configuration.put("junit.jupiter.execution.parallel.config.strategy", "fixed");
+    configuration.put("junit.jupiter.execution.parallel.config.fixed.parallelism", "4");
+
+    RecordingExecutionListener listener =
+        execute(configuration, selectClass(OverlaidTestCase.class));
+
+    assertThat(countFinishedTests(listener, SUCCESSFUL), is(4L));
+    assertThat(countFinishedTests(listener, FAILED), is(0L));
+    assertThat(OverlaidTestCase.values, containsInAnyOrder("one", "two", "three", "four"));
+    // the JVM's system properties were never changed
+    assertThat(System.getProperty("overlaidClassKey"), nullValue());
+    assertThat(System.getProperty("overlaidMethodKey"), nullValue());
+  }
+
+  @Test
+  public void overlaidSystemPropertiesAreNotInheritedByThreadsStartedByATestClass() {
+    Map<String, String> configuration = new HashMap<>();
+    configuration.put(SystemPropertyExtension.OVERLAY_PARAMETER, "true");
+
+    RecordingExecutionListener listener =
+        execute(configuration, selectClass(OverlaidContainerTestCase.class));
+
+    assertThat(countFinishedTests(listener, SUCCESSFUL), is(1L));
+    // the engine starts its worker threads from the test class's thread, just as this test class
+    // does, so a worker would otherwise keep the class's overlay for as long as it lives
+    assertThat(OverlaidContainerTestCase.seenByClassThread.get(), nullValue());
+    assertThat(OverlaidContainerTestCase.seenByChildOfClassThread.get(), nullValue());
+  }
+
+  @Test
+  public void testsWhichSetTheSameSystemPropertyTakeTurnsWhenRunInParallel() {
+    Map<String, String> configuration = new HashMap<>();
+    configuration.put("junit.jupiter.execution.parallel.enabled", "true");
+    configuration.put("junit.jupiter.execution.parallel.mode.default", "concurrent");
+    configuration.put("junit.jupiter.execution.parallel.config.strategy", "fixed");
+    configuration.put("junit.jupiter.execution.parallel.config.fixed.parallelism", "4");
+
+    RecordingExecutionListener listener =
+        execute(configuration, selectClass(LockedTestCase.class));
+
+    assertThat(countFinishedTests(listener, SUCCESSFUL), is(5L));
+    assertThat(countFinishedTests(listener, FAILED), is(0L));
+    assertThat(LockedTestCase.maxConcurrentHolders.get(), is(1));
+    assertThat(System.getProperty("lockedMethodKey"), nullValue());
+    assertThat(System.getProperty("lockedClassKey"), nullValue());
+  }
+
+  @Test
+  public void testsWhichSetTheSamePropertiesAtDifferentLevelsDoNotDeadlockWhenRunInParallel() {
+    Map<String, String> configuration = new HashMap<>();
+    configuration.put("junit.jupiter.execution.parallel.enabled", "true");
+    configuration.put("junit.jupiter.execution.parallel.mode.default", "concurrent");
+    configuration.put("junit.jupiter.execution.parallel.config.strategy", "fixed");
+    configuration.put("junit.jupiter.execution.parallel.config.fixed.parallelism", "4");
+
+    RecordingExecutionListener listener =
+        assertTimeoutPreemptively(
+            Duration.ofSeconds(30),
+            () ->
+                execute(
+                    configuration,
+                    selectClass(CrossedLocksTestCaseA.class),
+                    selectClass(CrossedLocksTestCaseB.class)));
+
+    assertThat(countFinishedTests(listener, SUCCESSFUL), is(2L));
+    assertThat(System.getProperty("crossedKeyA"), nullValue());
+    assertThat(System.getProperty("crossedKeyB"), nullValue());
+  }
+
+  private long countFinishedTests(RecordingExecutionListener listener, Status status) {
+    return listener
+        .getFinishedEventsByStatus(status)
+        .filter(event -> event.getTestDescriptor().isTest())
+        .count();
+  }
+
+  @SystemProperty(name = "overlaidClassKey", value = "class")
+  public static class OverlaidTestCase {
+    static final Set<String> values = ConcurrentHashMap.newKeySet();
+
+    // gives the tests a chance to overlap, without failing if the scheduler runs them in sequence
+    private static final CyclicBarrier barrier = new CyclicBarrier(4);
+
+    @Test
+    @SystemProperty(name = "overlaidMethodKey", value = "one")
+    public void one() throws Exception {
+      verify("one");
+    }
+
+    @Test
+    @SystemProperty(name = "overlaidMethodKey", value = "two")
+    public void two() throws Exception {
+      verify("two");
+    }
+
+    @Test
+    @SystemProperty(name = "overlaidMethodKey", value = "three")
+    public void three() throws Exception {
+      verify("three");
+    }
+
+    @Test
+    @SystemProperty(name = "overlaidMethodKey", value = "four")
+    public void four() throws Exception {
+      verify("four");
+    }
+
+    private void verify(String expected) throws Exception {
+      try {
+        barrier.await(2, TimeUnit.SECONDS);
+      } catch (TimeoutException | BrokenBarrierException ex) {
+        // the tests did not all overlap, the assertions still hold
+      }
+      assertThat(System.getProperty("overlaidClassKey"), is("class"));
+      assertThat(System.getProperty("overlaidMethodKey"), is(expected));
+
+      // a thread started by the test sees the test's overlay
+      AtomicReference<String> seenByChild = new AtomicReference<>();
+      Thread child = new Thread(() -> seenByChild.set(System.getProperty("overlaidMethodKey")));
+      child.start();
+      child.join();
+      assertThat(seenByChild.get(), is(expected));
+
+      values.add(System.getProperty("overlaidMethodKey"));
+    }
+  }
+
+  @SystemProperty(name = "lifecycleKey", value = "class")
+  public static class LifecycleTestCase {
+    static final AtomicReference<String> seenByBeforeAll = new AtomicReference<>();
+    static final AtomicReference<String> seenByAfterAll = new AtomicReference<>();
+
+    @BeforeAll
+    public static void beforeAll() {
+      seenByBeforeAll.set(System.getProperty("lifecycleKey"));
+    }
+
+    @AfterAll
+    public static void afterAll() {
+      seenByAfterAll.set(System.getProperty("lifecycleKey"));
+    }
+
+    @Test
+    @SystemProperty(name = "lifecycleKey", value = "method")
+    public void test() {
+      assertThat(System.getProperty("lifecycleKey"), is("method"));
+    }
+  }
+
+  @SystemProperty(name = "overlaidContainerKey", value = "class")
+  public static class OverlaidContainerTestCase {
+    static final AtomicReference<String> seenByClassThread = new AtomicReference<>();
+    static final AtomicReference<String> seenByChildOfClassThread = new AtomicReference<>();
+
+    @BeforeAll
+    public static void startThread() throws InterruptedException {
+      seenByClassThread.set(System.getProperty("overlaidContainerKey"));
+      Thread child =
+          new Thread(
+              () -> seenByChildOfClassThread.set(System.getProperty("overlaidContainerKey")));
+      child.start();
+      child.join();
+    }
+
+    @Test
+    public void test() {
+      assertThat(System.getProperty("overlaidContainerKey"), is("class"));
+    }
+  }
+
+  @SystemProperty(name = "lockedClassKey", value = "class")
+  public static class LockedTestCase {
+    static final AtomicInteger maxConcurrentHolders = new AtomicInteger();
+    private static final AtomicInteger holders = new AtomicInteger();
+
+    @Test
+    @SystemProperty(name = "lockedMethodKey", value = "one")
+    public void one() throws InterruptedException {
+      verify("one");
+    }
+
+    @Test
+    @SystemProperty(name = "lockedMethodKey", value = "two")
+    public void two() throws InterruptedException {
+      verify("two");
+    }
+
+    @Test
+    @SystemProperty(name = "lockedMethodKey", value = "three")
+    public void three() throws InterruptedException {
+      verify("three");
+    }
+
+    @Test
+    @SystemProperty(name = "lockedMethodKey", value = "four")
+    public void four() throws InterruptedException {
+      verify("four");
+    }
+
+    @Test
+    @SystemProperty(name = "lockedClassKey", value = "method")
+    public void canRepeatAPropertyWhichIsLockedByTheClass() {
+      assertThat(System.getProperty("lockedClassKey"), is("method"));
+    }
+
+    private void verify(String expected) throws InterruptedException {
+      int current = holders.incrementAndGet();
+      maxConcurrentHolders.accumulateAndGet(current, Math::max);
+      try {
+        for (int i = 0; i < 10; i++) {
+          assertThat(System.getProperty("lockedMethodKey"), is(expected));
+          Thread.sleep(5);
+        }
+      } finally {
+        holders.decrementAndGet();
+      }
+    }
+  }
+
+  // the barrier gives both classes the chance to start before either class's test runs
+  private static final CyclicBarrier crossedLocksBarrier = new CyclicBarrier(2);
+
+  private static void awaitCrossedLocks() throws InterruptedException {
+    try {
+      crossedLocksBarrier.await(2, TimeUnit.SECONDS);
+    } catch (TimeoutException | BrokenBarrierException ex) {
+      // the classes did not overlap, the assertions still hold
+    }
+  }
+
+  @SystemProperty(name = "crossedKeyA", value = "class")
+  public static class CrossedLocksTestCaseA {
+
+    @BeforeAll
+    public static void start() throws InterruptedException {
+      awaitCrossedLocks();
+    }
+
+    @Test
+    @SystemProperty(name = "crossedKeyB", value = "method")
+    public void test() {
+      assertThat(System.getProperty("crossedKeyA"), is("class"));
+      assertThat(System.getProperty("crossedKeyB"), is("method"));
+    }
+  }
+
+  @SystemProperty(name = "crossedKeyB", value = "class")
+  public static class CrossedLocksTestCaseB {
+
+    @BeforeAll
+    public static void start() throws InterruptedException {
+      awaitCrossedLocks();
+    }
+
+    @Test
+    @SystemProperty(name = "crossedKeyA", value = "method")
+    public void test() {
+      assertThat(System.getProperty("crossedKeyA"), is("method"));
+      assertThat(System.getProperty("crossedKeyB"), is("class"));
+    }
+  }
 }
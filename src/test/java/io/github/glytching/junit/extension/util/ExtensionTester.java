@@ -23,6 +23,9 @@ import org.junit.platform.engine.TestDescriptor;
 import org.junit.platform.engine.UniqueId;
 import org.junit.platform.launcher.LauncherDiscoveryRequest;
 
+import java.util.Collections;
+import java.util.Map;
+
 import static org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder.request;
 
 /**
@@ -67,11 +70,28 @@ public class ExtensionTester {
    * @return a {@link RecordingExecutionListener} which encapsulates what the engine did
    */
   public static RecordingExecutionListener execute(DiscoverySelector... selectors) {
+    return execute(Collections.emptyMap(), selectors);
+  }
+
+  /**
+   * Instance an engine and execute the test resources identified by the given {@code selectors}
+   * using the given {@code configurationParameters}, this allows a test to (for example) ask the
+   * engine to run the test resources in parallel.
+   *
+   * @param configurationParameters engine configuration e.g. {@code
+   *     junit.jupiter.execution.parallel.enabled=true}
+   * @param selectors {@link DiscoverySelector} instances which will isolate test class or test
+   *     methods
+   * @return a {@link RecordingExecutionListener} which encapsulates what the engine did
+   */
+  public static RecordingExecutionListener execute(
+      Map<String, String> configurationParameters, DiscoverySelector... selectors) {
     // instance an engine
     JupiterTestEngine testEngine = new JupiterTestEngine();
 
     // discover the requested test resources
-    LauncherDiscoveryRequest discoveryRequest = request().selectors(selectors).build();
+    LauncherDiscoveryRequest discoveryRequest =
+        request().selectors(selectors).configurationParameters(configurationParameters).build();
 
     RecordingExecutionListener listener = new RecordingExecutionListener();
 